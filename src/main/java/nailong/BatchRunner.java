@@ -0,0 +1,110 @@
+package nailong;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Headless entry point that runs commands from a script or standard input without any GUI.
+ * Responses go through one buffered writer, and the task list is written once per checkpoint
+ * and at the end instead of after every command.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.BatchRunner [--data <file>] [--checkpoint <commands>] [script]}
+ */
+public class BatchRunner {
+    private static final String DEFAULT_DATA_FILE = "./data/Nailong.txt";
+    private static final int OUTPUT_BUFFER_CHARS = 1 << 16;
+
+    private final Nailong nailong;
+    private final int checkpointInterval;
+
+    /**
+     * Creates a runner over the given Nailong instance.
+     *
+     * @param nailong Instance to send commands to.
+     * @param checkpointInterval Number of commands between writes to disk, or 0 to write only at the end.
+     */
+    public BatchRunner(Nailong nailong, int checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative!");
+        }
+        this.nailong = nailong;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Runs every command read from the input until it ends or a {@code bye} command,
+     * writing each response on its own line.
+     *
+     * @param in Commands, one per line.
+     * @param out Receives the responses.
+     * @return Number of commands run.
+     * @throws IOException If reading commands or writing responses fails.
+     */
+    public int run(BufferedReader in, Writer out) throws IOException {
+        out.write(nailong.getWelcomeMessage());
+        out.write('\n');
+        int count = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            out.write(nailong.getResponse(line));
+            out.write('\n');
+            count++;
+            if (new CommandLine(line).getKeyword().equals("bye")) {
+                break;
+            }
+            if (checkpointInterval > 0 && count % checkpointInterval == 0) {
+                nailong.flush();
+            }
+        }
+        nailong.flush();
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Runs a script of commands headlessly.
+     *
+     * @param args Optional {@code --data <file>}, {@code --checkpoint <commands>} and script path;
+     *             commands are read from standard input when no script is given.
+     */
+    public static void main(String[] args) throws IOException {
+        String dataFile = DEFAULT_DATA_FILE;
+        int checkpointInterval = 0;
+        String script = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--data":
+                dataFile = args[++i];
+                break;
+            case "--checkpoint":
+                checkpointInterval = Integer.parseInt(args[++i]);
+                break;
+            default:
+                script = args[i];
+            }
+        }
+
+        Nailong nailong = new Nailong(dataFile, new StorageOptions().withDeferredSaves());
+        Reader source = script == null
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8);
+        try (BufferedReader in = new BufferedReader(source);
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                        OUTPUT_BUFFER_CHARS)) {
+            new BatchRunner(nailong, checkpointInterval).run(in, out);
+        } finally {
+            nailong.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package nailong;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+/**
+ * Compact binary encoding of the task list, read and written through NIO channels.
+ * Loading it needs no regex splitting or date-string parsing, unlike the pipe-separated text format.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header : int magic ("NLNG") | short version | int record count
+ * record : byte type ('T', 'D', 'E' or 'R') | byte flags (bit 0 = done)
+ *          | int description length | UTF-8 description bytes
+ *          | int epoch day of the deadline, or of the event start and end
+ *          | for a recurring task: int start day | int interval | int end day
+ *            | int done occurrence count | int epoch day of each done occurrence
+ * </pre>
+ * Version 2 added recurring tasks; version 1 files are still read.
+ */
+class BinaryTaskFormat {
+    static final int MAGIC = 0x4E4C4E47;
+    static final short VERSION = 2;
+
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    /** Size of the shortest record: a to-do with an empty description. */
+    private static final int MIN_RECORD_BYTES = 2 + Integer.BYTES;
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private static final byte RECURRING = 'R';
+    private static final byte DONE_FLAG = 1;
+
+    /**
+     * Checks whether a file starts with the binary format's magic number.
+     *
+     * @param path File to inspect.
+     * @return true if the file is in the binary format.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Encodes tasks into the binary format.
+     *
+     * @param size Number of tasks.
+     * @param taskAt Returns the task at each position.
+     * @return Encoded bytes, ready to be written to a file.
+     */
+    public static byte[] encode(int size, IntFunction<Task> taskAt) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size * 32);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(size);
+        for (int i = 0; i < size; i++) {
+            Task task = taskAt.apply(i);
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            buffer = ensureCapacity(buffer, 2 + Integer.BYTES * 3 + description.length);
+            buffer.put(typeOf(task)).put(task.isDone() ? DONE_FLAG : 0);
+            buffer.putInt(description.length).put(description);
+            if (task instanceof Deadline) {
+                buffer.putInt(((Deadline) task).getByDay());
+            } else if (task instanceof Event) {
+                buffer.putInt(((Event) task).getStartDay());
+                buffer.putInt(((Event) task).getEndDay());
+            } else if (task instanceof Recurring) {
+                buffer = putRecurring(buffer, (Recurring) task);
+            }
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes every task in a binary file.
+     * Records with invalid contents are skipped with a warning. A truncated or unreadable record stops
+     * decoding, keeping the tasks read before it.
+     *
+     * @param path File in the binary format.
+     * @return Tasks in stored order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ArrayList<Task> read(Path path) throws IOException {
+        return read(path, UnaryOperator.identity());
+    }
+
+    /**
+     * Decodes every task in a binary file, passing each description through the given function
+     * so that repeated descriptions can share one string.
+     *
+     * @param path File in the binary format.
+     * @param descriptions Maps each decoded description to the string the task should hold.
+     * @return Tasks in stored order.
+     * @throws IOException If the file cannot be read or its header is invalid.
+     */
+    public static ArrayList<Task> read(Path path, UnaryOperator<String> descriptions) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the whole file is in memory
+            }
+            buffer.flip();
+        }
+
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new IOException("Task file header is truncated");
+        }
+        int magic = buffer.getInt();
+        short version = buffer.getShort();
+        if (magic != MAGIC || version < 1 || version > VERSION) {
+            throw new IOException("Unsupported task file version " + version);
+        }
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / MIN_RECORD_BYTES) {
+            throw new IOException("Invalid task count " + count);
+        }
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                tasks.add(readTask(buffer, descriptions));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                // The record was read in full, only its contents are invalid
+                warnCorrupted(i + 1, count, e.getMessage());
+            } catch (BufferUnderflowException e) {
+                warnCorrupted(i + 1, count, "File is truncated");
+                break;
+            } catch (IllegalStateException e) {
+                warnCorrupted(i + 1, count, e.getMessage());
+                break;
+            }
+        }
+        return tasks;
+    }
+
+    private static Task readTask(ByteBuffer buffer, UnaryOperator<String> descriptions) {
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        byte[] descriptionBytes = new byte[checkedLength(buffer, 1)];
+        buffer.get(descriptionBytes);
+        String description = descriptions.apply(new String(descriptionBytes, StandardCharsets.UTF_8));
+
+        Task task;
+        switch (type) {
+        case TODO:
+            task = new Todo(description);
+            break;
+        case DEADLINE:
+            task = Deadline.restore(description, LocalDate.ofEpochDay(buffer.getInt()));
+            break;
+        case EVENT:
+            // Both days are read before either is checked, so an invalid day still consumes the whole record
+            int fromDay = buffer.getInt();
+            int toDay = buffer.getInt();
+            task = Event.restore(description, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay));
+            break;
+        case RECURRING:
+            task = getRecurring(buffer, description);
+            break;
+        default:
+            // Without the type the record length is unknown, so nothing after it can be read
+            throw new IllegalStateException("Unknown task type '" + (char) type + "'");
+        }
+
+        if ((flags & DONE_FLAG) != 0) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    private static ByteBuffer putRecurring(ByteBuffer buffer, Recurring task) {
+        int[] doneDays = task.getDoneOccurrenceDays();
+        buffer = ensureCapacity(buffer, Integer.BYTES * (4 + doneDays.length));
+        buffer.putInt(task.getStartDay()).putInt(task.getIntervalDays()).putInt(task.getEndDay());
+        buffer.putInt(doneDays.length);
+        for (int day : doneDays) {
+            buffer.putInt(day);
+        }
+        return buffer;
+    }
+
+    private static Recurring getRecurring(ByteBuffer buffer, String description) {
+        int startDay = buffer.getInt();
+        int intervalDays = buffer.getInt();
+        int endDay = buffer.getInt();
+        int[] doneDays = new int[checkedLength(buffer, Integer.BYTES)];
+        for (int i = 0; i < doneDays.length; i++) {
+            doneDays[i] = buffer.getInt();
+        }
+        return Recurring.restore(description, startDay, intervalDays, endDay, doneDays);
+    }
+
+    /**
+     * Reads a length prefix, checking that the data it announces fits in what is left of the file
+     * before anything is allocated for it.
+     */
+    private static int checkedLength(ByteBuffer buffer, int bytesPerElement) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / bytesPerElement) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    private static void warnCorrupted(int record, int count, String error) {
+        System.out.println("Warning: Corrupted data at record " + record + " of " + count);
+        System.out.println("Error: " + error);
+    }
+
+    private static byte typeOf(Task task) {
+        if (task instanceof Recurring) {
+            return RECURRING;
+        } else if (task instanceof Deadline) {
+            return DEADLINE;
+        } else if (task instanceof Event) {
+            return EVENT;
+        } else {
+            return TODO;
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return larger.put(buffer);
+    }
+}
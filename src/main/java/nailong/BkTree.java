@@ -0,0 +1,149 @@
+package nailong;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree of words under Levenshtein distance.
+ * Every child of a node sits at a known distance from it, so by the triangle inequality a search
+ * within k edits only needs to visit children whose distance lies within k of the query's distance
+ * to the node, instead of comparing the query with every word.
+ * Words are never removed; callers skip words that no longer exist and rebuild the tree when too
+ * many have piled up.
+ */
+class BkTree {
+    private Node root;
+    private int size;
+
+    /**
+     * A word found by {@link #search(String, int)} together with its distance from the query.
+     */
+    static class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    private static class Node {
+        final String word;
+        int[] distances = new int[0];
+        Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node childAt(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            distances = Arrays.copyOf(distances, distances.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            distances[distances.length - 1] = distance;
+            children[children.length - 1] = child;
+        }
+    }
+
+    /**
+     * Adds a word to the tree if it is not already there.
+     *
+     * @param word Word to add.
+     */
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.childAt(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Returns the words within the given number of edits of the query.
+     *
+     * @param query Word to search for.
+     * @param maxDistance Largest number of single-character insertions, deletions or substitutions allowed.
+     * @return Matching words in no particular order.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        ArrayList<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.word, distance));
+            }
+            for (int i = 0; i < node.distances.length; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the number of words in the tree, including words the caller no longer uses.
+     *
+     * @return Number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words.
+     *
+     * @param a First word.
+     * @param b Second word.
+     * @return Minimum number of single-character edits turning one into the other.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,225 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nailong.task.Recurring;
+import nailong.task.Task;
+
+/**
+ * Task sequence stored as a list of small blocks, with a Fenwick tree over the block sizes.
+ * Finding the block holding a position takes O(log(n / B)) and inserting or removing inside it
+ * shifts at most B tasks, so edits anywhere in a million-task list no longer move every later task.
+ * The last block used is remembered, which keeps walking the list in order O(1) per task.
+ * The remembered block is a single immutable {@link Cursor}, so readers sharing a read lock can
+ * race on it without ever seeing a block paired with the wrong start position.
+ */
+class ChunkedTaskSequence implements TaskSequence {
+    private static final int BLOCK_SIZE = 512;
+
+    private final ArrayList<Task[]> blocks = new ArrayList<>();
+    private int[] blockSizes = new int[0];
+    private int[] fenwick = new int[1];
+    private int size;
+
+    private Cursor cursor;
+
+    /**
+     * A block together with the position of its first task.
+     */
+    private static final class Cursor {
+        final int block;
+        final int start;
+
+        Cursor(int block, int start) {
+            this.block = block;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Creates a sequence holding the given tasks in order.
+     *
+     * @param tasks Initial tasks.
+     */
+    public ChunkedTaskSequence(List<Task> tasks) {
+        for (int start = 0; start < tasks.size(); start += BLOCK_SIZE) {
+            int end = Math.min(tasks.size(), start + BLOCK_SIZE);
+            Task[] block = new Task[2 * BLOCK_SIZE];
+            for (int i = start; i < end; i++) {
+                block[i - start] = tasks.get(i);
+            }
+            appendBlock(block, end - start);
+        }
+        size = tasks.size();
+        rebuildFenwick();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size - 1);
+        Cursor at = locate(index);
+        return blocks.get(at.block)[index - at.start];
+    }
+
+    @Override
+    public void add(Task task) {
+        add(size, task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size);
+        if (blocks.isEmpty()) {
+            appendBlock(new Task[2 * BLOCK_SIZE], 0);
+            rebuildFenwick();
+        }
+        Cursor at;
+        if (index == size) {
+            // Appending goes into the last block even though no task occupies this index yet
+            int last = blocks.size() - 1;
+            at = new Cursor(last, size - blockSizes[last]);
+            cursor = at;
+        } else {
+            at = locate(index);
+        }
+        int block = at.block;
+        Task[] items = blocks.get(block);
+        int offset = index - at.start;
+        System.arraycopy(items, offset, items, offset + 1, blockSizes[block] - offset);
+        items[offset] = task;
+        blockSizes[block]++;
+        size++;
+        if (blockSizes[block] == items.length) {
+            split(block);
+        } else {
+            updateFenwick(block, 1);
+        }
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkIndex(index, size - 1);
+        Cursor at = locate(index);
+        int block = at.block;
+        Task[] items = blocks.get(block);
+        int offset = index - at.start;
+        Task removed = items[offset];
+        System.arraycopy(items, offset + 1, items, offset, blockSizes[block] - offset - 1);
+        items[--blockSizes[block]] = null;
+        size--;
+        if (blockSizes[block] == 0 && blocks.size() > 1) {
+            blocks.remove(block);
+            System.arraycopy(blockSizes, block + 1, blockSizes, block, blocks.size() - block);
+            rebuildFenwick();
+        } else {
+            updateFenwick(block, -1);
+        }
+        return removed;
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        if (isDone) {
+            get(index).markDone();
+        } else {
+            get(index).markUndone();
+        }
+    }
+
+    @Override
+    public void setId(int index, int id) {
+        get(index).setId(id);
+    }
+
+    @Override
+    public void setOccurrenceDone(int index, int day, boolean isDone) {
+        ((Recurring) get(index)).setOccurrenceDone(day, isDone);
+    }
+
+    /**
+     * Returns the block holding the index, trying the remembered block and the one after it
+     * before descending the Fenwick tree.
+     */
+    private Cursor locate(int index) {
+        Cursor last = cursor;
+        if (last != null && index >= last.start && index < last.start + blockSizes[last.block]) {
+            return last;
+        }
+        if (last != null && last.block + 1 < blocks.size()) {
+            int nextStart = last.start + blockSizes[last.block];
+            if (index >= nextStart && index < nextStart + blockSizes[last.block + 1]) {
+                Cursor next = new Cursor(last.block + 1, nextStart);
+                cursor = next;
+                return next;
+            }
+        }
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(fenwick.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < fenwick.length && fenwick[next] <= remaining) {
+                position = next;
+                remaining -= fenwick[next];
+            }
+        }
+        Cursor found = new Cursor(position, index - remaining);
+        cursor = found;
+        return found;
+    }
+
+    private void split(int block) {
+        Task[] full = blocks.get(block);
+        Task[] upper = new Task[2 * BLOCK_SIZE];
+        int keep = blockSizes[block] / 2;
+        int moved = blockSizes[block] - keep;
+        System.arraycopy(full, keep, upper, 0, moved);
+        Arrays.fill(full, keep, full.length, null);
+        blocks.add(block + 1, upper);
+        if (blocks.size() > blockSizes.length) {
+            blockSizes = Arrays.copyOf(blockSizes, blocks.size() * 2);
+        }
+        System.arraycopy(blockSizes, block + 1, blockSizes, block + 2, blocks.size() - block - 2);
+        blockSizes[block] = keep;
+        blockSizes[block + 1] = moved;
+        rebuildFenwick();
+    }
+
+    private void appendBlock(Task[] block, int count) {
+        blocks.add(block);
+        if (blocks.size() > blockSizes.length) {
+            blockSizes = Arrays.copyOf(blockSizes, Math.max(4, blocks.size() * 2));
+        }
+        blockSizes[blocks.size() - 1] = count;
+    }
+
+    private void rebuildFenwick() {
+        fenwick = new int[blocks.size() + 1];
+        for (int i = 1; i < fenwick.length; i++) {
+            fenwick[i] += blockSizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent < fenwick.length) {
+                fenwick[parent] += fenwick[i];
+            }
+        }
+        cursor = null;
+    }
+
+    private void updateFenwick(int block, int delta) {
+        for (int i = block + 1; i < fenwick.length; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    private void checkIndex(int index, int maxIndex) {
+        if (index < 0 || index > maxIndex) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
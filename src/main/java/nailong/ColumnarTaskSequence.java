@@ -0,0 +1,279 @@
+package nailong;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+/**
+ * Task sequence that keeps each field in its own array instead of one object per task.
+ * Descriptions live back to back in a shared UTF-8 byte arena, dates are epoch-day ints and
+ * completion is one bit, so a task costs about 21 bytes plus its description.
+ * A recurring task keeps its start and end days in the date columns, and its interval and done
+ * occurrences in front of its description in the arena, so the rare rules cost the common tasks nothing.
+ * {@link #get(int)} builds a fresh {@link Task} from the columns each time; changes to a task's
+ * status or id must go through {@link #setDone(int, boolean)} and {@link #setId(int, int)}.
+ * Inserting or removing in the middle moves the later entries of each primitive column.
+ */
+class ColumnarTaskSequence implements TaskSequence {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte RECURRING = 3;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] types;
+    private final BitSet done = new BitSet();
+    private int[] firstDays;
+    private int[] secondDays;
+    private int[] ids;
+    private int[] descriptionStarts;
+    private int[] descriptionLengths;
+    private byte[] arena = new byte[256];
+    private int arenaUsed;
+    private int size;
+
+    /**
+     * Creates a sequence holding the given tasks in order.
+     *
+     * @param tasks Initial tasks.
+     * @throws IllegalArgumentException If a task is not a todo, deadline, event or recurring task.
+     */
+    public ColumnarTaskSequence(List<Task> tasks) {
+        int capacity = Math.max(INITIAL_CAPACITY, tasks.size());
+        types = new byte[capacity];
+        firstDays = new int[capacity];
+        secondDays = new int[capacity];
+        ids = new int[capacity];
+        descriptionStarts = new int[capacity];
+        descriptionLengths = new int[capacity];
+        for (Task task : tasks) {
+            add(task);
+        }
+        arena = Arrays.copyOf(arena, arenaUsed);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size - 1);
+        if (types[index] == RECURRING) {
+            return getRecurring(index);
+        }
+        String description = new String(arena, descriptionStarts[index], descriptionLengths[index],
+                StandardCharsets.UTF_8);
+        Task task;
+        switch (types[index]) {
+        case DEADLINE:
+            task = Deadline.restore(description, LocalDate.ofEpochDay(firstDays[index]));
+            break;
+        case EVENT:
+            task = Event.restore(description, LocalDate.ofEpochDay(firstDays[index]),
+                    LocalDate.ofEpochDay(secondDays[index]));
+            break;
+        default:
+            task = new Todo(description);
+            break;
+        }
+        if (done.get(index)) {
+            task.markDone();
+        }
+        task.setId(ids[index]);
+        return task;
+    }
+
+    @Override
+    public void add(Task task) {
+        add(size, task);
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size);
+        byte type = typeOf(task);
+        if (size == types.length) {
+            grow();
+        }
+        shift(index, 1);
+        types[index] = type;
+        ids[index] = task.getId();
+        done.set(index, task.isDone());
+        if (type == DEADLINE) {
+            firstDays[index] = ((Deadline) task).getByDay();
+        } else if (type == EVENT) {
+            firstDays[index] = ((Event) task).getStartDay();
+            secondDays[index] = ((Event) task).getEndDay();
+        } else if (type == RECURRING) {
+            firstDays[index] = ((Recurring) task).getStartDay();
+            secondDays[index] = ((Recurring) task).getEndDay();
+            storeInArena(index, encodeRecurring((Recurring) task));
+            return;
+        }
+        storeInArena(index, task.getDescription().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void storeInArena(int index, byte[] bytes) {
+        if (arenaUsed + bytes.length > arena.length) {
+            compactArena(bytes.length);
+        }
+        System.arraycopy(bytes, 0, arena, arenaUsed, bytes.length);
+        descriptionStarts[index] = arenaUsed;
+        descriptionLengths[index] = bytes.length;
+        arenaUsed += bytes.length;
+    }
+
+    /**
+     * Encodes the interval, the done occurrences and the description of a recurring task.
+     */
+    private static byte[] encodeRecurring(Recurring task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int[] doneDays = task.getDoneOccurrenceDays();
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (2 + doneDays.length) + description.length);
+        buffer.putInt(task.getIntervalDays()).putInt(doneDays.length);
+        for (int day : doneDays) {
+            buffer.putInt(day);
+        }
+        return buffer.put(description).array();
+    }
+
+    private Recurring getRecurring(int index) {
+        ByteBuffer buffer = ByteBuffer.wrap(arena, descriptionStarts[index], descriptionLengths[index]);
+        int intervalDays = buffer.getInt();
+        int[] doneDays = new int[buffer.getInt()];
+        for (int i = 0; i < doneDays.length; i++) {
+            doneDays[i] = buffer.getInt();
+        }
+        String description = new String(arena, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+        Recurring task = Recurring.restore(description, firstDays[index], intervalDays, secondDays[index], doneDays);
+        if (done.get(index)) {
+            task.markDone();
+        }
+        task.setId(ids[index]);
+        return task;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        shift(index + 1, -1);
+        return removed;
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        checkIndex(index, size - 1);
+        done.set(index, isDone);
+    }
+
+    @Override
+    public void setId(int index, int id) {
+        checkIndex(index, size - 1);
+        ids[index] = id;
+    }
+
+    @Override
+    public void setOccurrenceDone(int index, int day, boolean isDone) {
+        checkIndex(index, size - 1);
+        if (types[index] != RECURRING) {
+            throw new IllegalArgumentException("Only recurring tasks can be marked for a single day!");
+        }
+        Recurring task = getRecurring(index);
+        task.setOccurrenceDone(day, isDone);
+        // The old bytes stay behind until the arena is next compacted
+        storeInArena(index, encodeRecurring(task));
+    }
+
+    private static byte typeOf(Task task) {
+        if (task instanceof Recurring) {
+            return RECURRING;
+        }
+        if (task instanceof Deadline) {
+            return DEADLINE;
+        }
+        if (task instanceof Event) {
+            return EVENT;
+        }
+        if (task instanceof Todo) {
+            return TODO;
+        }
+        throw new IllegalArgumentException("Unknown task type: " + task.getClass().getSimpleName());
+    }
+
+    /**
+     * Moves the entries from {@code from} onwards by {@code distance} positions in every column.
+     */
+    private void shift(int from, int distance) {
+        int count = size - from;
+        System.arraycopy(types, from, types, from + distance, count);
+        System.arraycopy(firstDays, from, firstDays, from + distance, count);
+        System.arraycopy(secondDays, from, secondDays, from + distance, count);
+        System.arraycopy(ids, from, ids, from + distance, count);
+        System.arraycopy(descriptionStarts, from, descriptionStarts, from + distance, count);
+        System.arraycopy(descriptionLengths, from, descriptionLengths, from + distance, count);
+        if (distance > 0) {
+            for (int i = size - 1; i >= from; i--) {
+                done.set(i + distance, done.get(i));
+            }
+        } else {
+            for (int i = from; i < size; i++) {
+                done.set(i + distance, done.get(i));
+            }
+            done.clear(size - 1);
+        }
+        size += distance;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        firstDays = Arrays.copyOf(firstDays, capacity);
+        secondDays = Arrays.copyOf(secondDays, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        descriptionStarts = Arrays.copyOf(descriptionStarts, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    /**
+     * Drops the bytes of removed descriptions and makes room for at least {@code needed} more.
+     */
+    private void compactArena(int needed) {
+        long live = 0;
+        for (int i = 0; i < size; i++) {
+            live += descriptionLengths[i];
+        }
+        long capacity = Math.max(arena.length, 256);
+        while (capacity < (live + needed) * 3 / 2) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Task descriptions do not fit in memory");
+        }
+        byte[] compacted = new byte[(int) capacity];
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, descriptionStarts[i], compacted, used, descriptionLengths[i]);
+            descriptionStarts[i] = used;
+            used += descriptionLengths[i];
+        }
+        arena = compacted;
+        arenaUsed = used;
+    }
+
+    private void checkIndex(int index, int maxIndex) {
+        if (index < 0 || index > maxIndex) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package nailong;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.function.ToIntFunction;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Todo;
+
+/**
+ * Measures how many commands per second are tokenized and dispatched, first through
+ * {@link CommandLine} and {@link Parser} alone, then end to end through {@link Nailong#getResponse(String)}
+ * with write-behind storage over a temporary data file.
+ * The parse-only figure is compared with the path commands took before {@link CommandLine}: a regex split
+ * into words, a string switch and the contains/split parsing of the date markers, kept here as a copy.
+ * The end-to-end figure has no baseline, as it would need the whole previous {@link Nailong}.
+ * Each measurement is repeated for a number of rounds so the later rounds show warmed-up code.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.CommandDispatchBenchmark [--rounds <n>] [--commands <per round>]}.
+ */
+public class CommandDispatchBenchmark {
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final int DEFAULT_COMMANDS = 200_000;
+    /**
+     * Mixed workload like text-ui-test/input.txt, with dates that stay valid. It deletes as many tasks
+     * as it adds, so the list stays short however many times it is repeated.
+     */
+    private static final String[] WORKLOAD = {"todo read book", "deadline submit assignment /by 31/12/2099",
+        "event team meeting /from 01/12/2099 /to 05/12/2099", "list", "mark 1", "unmark 1",
+        "todo buy groceries", "list", "delete 2", "find book", "delete 1", "delete 1", "delete 1"};
+
+    private static long sink;
+
+    /**
+     * Runs the measurements and prints the throughput of each round.
+     *
+     * @param args Optional {@code --rounds} and {@code --commands}.
+     */
+    public static void main(String[] args) throws IOException {
+        int rounds = DEFAULT_ROUNDS;
+        int commands = DEFAULT_COMMANDS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--rounds":
+                rounds = Integer.parseInt(args[++i]);
+                break;
+            case "--commands":
+                commands = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HashMap<String, ToIntFunction<CommandLine>> handlers = parseOnlyHandlers();
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < commands; i++) {
+                sink += dispatchBySplitAndSwitch(WORKLOAD[i % WORKLOAD.length]);
+            }
+            double before = commands / ((System.nanoTime() - start) / 1e3);
+
+            start = System.nanoTime();
+            for (int i = 0; i < commands; i++) {
+                CommandLine line = new CommandLine(WORKLOAD[i % WORKLOAD.length]);
+                sink += handlers.get(line.getKeyword()).applyAsInt(line);
+            }
+            double after = commands / ((System.nanoTime() - start) / 1e3);
+            System.out.printf("round %d: parse and dispatch only, split and switch %.2f M commands/s, "
+                    + "CommandLine and registry %.2f M commands/s%n", round, before, after);
+        }
+
+        Path dataFile = Files.createTempDirectory("nailong-dispatch").resolve("Nailong.txt");
+        Nailong nailong = new Nailong(dataFile.toString(), new StorageOptions()
+                .withWriteBehind(StorageOptions.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                        StorageOptions.DEFAULT_MAX_FLUSH_LATENCY_MILLIS));
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < commands; i++) {
+                sink += nailong.getResponse(WORKLOAD[i % WORKLOAD.length]).length();
+            }
+            System.out.printf("round %d: end to end %.0f commands/s%n", round,
+                    commands / ((System.nanoTime() - start) / 1e9));
+        }
+        nailong.close();
+        System.out.println("(checksum " + (sink & 1) + ")");
+    }
+
+    /**
+     * Returns handlers that parse each command the way Nailong does but leave the task list alone.
+     */
+    private static HashMap<String, ToIntFunction<CommandLine>> parseOnlyHandlers() {
+        Parser parser = new Parser();
+        HashMap<String, ToIntFunction<CommandLine>> handlers = new HashMap<>();
+        handlers.put("todo", line -> parser.parseTodoCommand(line).getDescription().length());
+        handlers.put("deadline", line -> parser.parseDeadlineCommand(line).getDescription().length());
+        handlers.put("event", line -> parser.parseEventCommand(line).getDescription().length());
+        handlers.put("mark", line -> parser.parseTaskIndex(line.parts(), WORKLOAD.length));
+        handlers.put("unmark", line -> parser.parseTaskIndex(line.parts(), WORKLOAD.length));
+        handlers.put("delete", line -> parser.parseTaskIndex(line.parts(), WORKLOAD.length));
+        handlers.put("list", line -> line.getTokenCount());
+        handlers.put("find", line -> line.text(1, line.getTokenCount()).length());
+        return handlers;
+    }
+
+    /**
+     * Tokenizes and dispatches a command the way Nailong did before {@link CommandLine}.
+     */
+    private static int dispatchBySplitAndSwitch(String input) {
+        String[] parts = input.trim().split("\\s+");
+        switch (parts[0].toLowerCase()) {
+        case "todo":
+            return parseTodoBySubstring(input).getDescription().length();
+        case "deadline":
+            return parseDeadlineBySplit(input).getDescription().length();
+        case "event":
+            return parseEventBySplit(input).getDescription().length();
+        case "mark":
+        case "unmark":
+        case "delete":
+            return new Parser().parseTaskIndex(parts, WORKLOAD.length);
+        case "list":
+            return parts.length;
+        case "find":
+            return parts.length - 1;
+        default:
+            return 0;
+        }
+    }
+
+    private static Todo parseTodoBySubstring(String input) {
+        String description = input.substring("todo ".length()).trim();
+        if (description.isEmpty()) {
+            throw new IllegalArgumentException("Invalid format! Use: todo <description>");
+        }
+        return new Todo(description);
+    }
+
+    private static Deadline parseDeadlineBySplit(String input) {
+        if (!input.contains("/by")) {
+            throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
+        }
+        String[] deadlineParts = input.substring("deadline ".length()).trim().split("/by");
+        if (deadlineParts.length != 2) {
+            throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
+        }
+        return new Deadline(deadlineParts[0].trim(), deadlineParts[1].trim());
+    }
+
+    private static Event parseEventBySplit(String input) {
+        if (!input.contains("/from") || !input.contains("/to")) {
+            throw new IllegalArgumentException("Invalid format! Use: event <description> /from <start> /to <end>");
+        }
+        String[] eventParts = input.substring("event ".length()).trim().split("/from |/to ");
+        if (eventParts.length < 3) {
+            throw new IllegalArgumentException("Invalid format! Use: event <description> /from <start> /to <end>");
+        }
+        return new Event(eventParts[0].trim(), eventParts[1].trim(), eventParts[2].trim());
+    }
+}
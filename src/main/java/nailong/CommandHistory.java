@@ -1,44 +1,220 @@
 package nailong;
 
-import java.util.Stack;
+import java.io.IOException;
 
 import nailong.task.Task;
 
 /**
- * Manages command history for undo functionality.
+ * Manages command history for undo and redo.
  * Tracks operations that can be undone like add, delete, mark, and unmark.
+ * Entries live in a fixed-size ring buffer: recording a command when the buffer is full overwrites
+ * the oldest entry in place, and recording after an undo discards everything that could have been
+ * redone just by resetting a counter.
+ * When given an {@link UndoLog}, every step is also appended to it, and the history recorded by
+ * earlier runs is read back the first time something is undone or redone.
  */
 public class CommandHistory {
-    private static final int MAX_HISTORY_SIZE = 50;
-    private Stack<Command> history;
+    public static final int DEFAULT_HISTORY_DEPTH = 50;
+    /** The log is rewritten once it holds this many times more lines than the history depth. */
+    private static final int LOG_REWRITE_FACTOR = 3;
+
+    private final Command[] history;
+    private final UndoLog log;
+    private boolean isLoaded;
+    private int logRewriteThreshold;
+    private int oldest;
+    private int undoable;
+    private int redoable;
 
     public CommandHistory() {
-        this.history = new Stack<>();
+        this(DEFAULT_HISTORY_DEPTH);
+    }
+
+    /**
+     * Creates a history that remembers up to the given number of commands.
+     *
+     * @param depth Number of commands that can be undone in a row.
+     * @throws IllegalArgumentException If the depth is not positive.
+     */
+    public CommandHistory(int depth) {
+        this(depth, null);
+    }
+
+    /**
+     * Creates a history that remembers up to the given number of commands and keeps them in a log.
+     *
+     * @param depth Number of commands that can be undone in a row.
+     * @param log Log to persist the history to, or null to keep it in memory only.
+     * @throws IllegalArgumentException If the depth is not positive.
+     */
+    CommandHistory(int depth, UndoLog log) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("History depth must be positive!");
+        }
+        this.history = new Command[depth];
+        this.log = log;
+        this.isLoaded = log == null;
+        this.logRewriteThreshold = LOG_REWRITE_FACTOR * depth;
     }
 
     /**
-     * Adds a command to the history stack.
-     * Limits history size to prevent memory issues.
+     * Adds a command to the history.
+     * Forgets the oldest command once the history is full, and any command that could be redone.
      */
     public void addCommand(Command command) {
-        if (history.size() >= MAX_HISTORY_SIZE) {
-            history.removeElementAt(0); // Remove oldest command
+        // Until the log has been read back the command only needs to reach the log
+        if (isLoaded) {
+            push(command);
         }
-        history.push(command);
+        appendToLog(command.toRecord());
     }
 
     /**
      * Undoes the last command and returns a description of what was undone.
      */
     public String undoLastCommand(TaskList tasks, Storage storage) {
-        if (history.isEmpty()) {
-            return "Nothing to undo~ ✨\nNailong checked the history and it’s all clear ~";
+        // Popping the entry and reversing it must not interleave with another change to the list
+        return tasks.withWriteLock(() -> {
+            load();
+            if (undoable == 0) {
+                return "Nothing to undo~ ✨\nNailong checked the history and it’s all clear ~";
+            }
+
+            String result;
+            try {
+                result = history[slot(undoable - 1)].undo(tasks);
+            } catch (RuntimeException e) {
+                return clearOutOfSyncHistory(tasks, storage);
+            }
+            stepBack();
+            appendToLog(String.valueOf(UndoLog.UNDO));
+            storage.save(tasks); // Save after undo
+            return result;
+        });
+    }
+
+    /**
+     * Redoes the last undone command and returns a description of what was redone.
+     */
+    public String redoLastCommand(TaskList tasks, Storage storage) {
+        return tasks.withWriteLock(() -> {
+            load();
+            if (redoable == 0) {
+                return "Nothing to redo~ ✨\nNailong checked and there’s nothing undone to bring back ~";
+            }
+
+            String result;
+            try {
+                result = history[slot(undoable)].redo(tasks);
+            } catch (RuntimeException e) {
+                return clearOutOfSyncHistory(tasks, storage);
+            }
+            stepForward();
+            appendToLog(String.valueOf(UndoLog.REDO));
+            storage.save(tasks);
+            return result;
+        });
+    }
+
+    /**
+     * Records a command in memory, overwriting the oldest one when the history is full.
+     */
+    void push(Command command) {
+        history[slot(undoable)] = command;
+        if (undoable == history.length) {
+            oldest = slot(1); // Overwrote the oldest command
+        } else {
+            undoable++;
+        }
+        redoable = 0;
+    }
+
+    /**
+     * Moves the latest command over to the commands that can be redone.
+     */
+    void stepBack() {
+        if (undoable > 0) {
+            undoable--;
+            redoable++;
+        }
+    }
+
+    /**
+     * Moves the first command that can be redone back to the commands that can be undone.
+     */
+    void stepForward() {
+        if (redoable > 0) {
+            undoable++;
+            redoable--;
+        }
+    }
+
+    /**
+     * Reads back the history recorded by earlier runs, once.
+     */
+    private void load() {
+        if (!isLoaded) {
+            isLoaded = true;
+            log.replay(this);
+        }
+    }
+
+    /**
+     * Forgets every command after one could not be applied to the current list, which happens
+     * when the data file was changed outside Nailong. The list is saved along with the emptied log,
+     * so the two stay in step on disk.
+     */
+    private String clearOutOfSyncHistory(TaskList tasks, Storage storage) {
+        undoable = 0;
+        redoable = 0;
+        rewriteLog();
+        storage.save(tasks);
+        return "Oops~ Nailong’s history doesn’t match your list anymore, so it was cleared ~";
+    }
+
+    private void appendToLog(String record) {
+        if (log == null || record == null) {
+            return;
+        }
+        try {
+            log.append(record);
+            if (log.getRecordCount() > logRewriteThreshold) {
+                load();
+                rewriteLog();
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving undo history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the log with just the commands still in the history.
+     */
+    private void rewriteLog() {
+        if (log == null) {
+            return;
         }
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < undoable + redoable; i++) {
+            records.append(history[slot(i)].toRecord()).append('\n');
+        }
+        for (int i = 0; i < redoable; i++) {
+            records.append(UndoLog.UNDO).append('\n');
+        }
+        try {
+            log.rewrite(records.toString());
+            // Large batches can keep the rewritten log long; wait for it to double before the next rewrite
+            logRewriteThreshold = Math.max(LOG_REWRITE_FACTOR * history.length, 2 * log.getRecordCount());
+        } catch (IOException e) {
+            System.out.println("Error saving undo history: " + e.getMessage());
+        }
+    }
 
-        Command lastCommand = history.pop();
-        String result = lastCommand.undo(tasks);
-        storage.save(tasks); // Save after undo
-        return result;
+    /**
+     * Returns the position in the ring buffer of the entry this many steps after the oldest one.
+     */
+    private int slot(int stepsAfterOldest) {
+        return (oldest + stepsAfterOldest) % history.length;
     }
 
     /**
@@ -48,6 +224,17 @@ public class CommandHistory {
         public String undo(TaskList tasks) {
             return "";
         }
+
+        public String redo(TaskList tasks) {
+            return "";
+        }
+
+        /**
+         * Returns the undo log record of this command, or null if it is not persisted.
+         */
+        String toRecord() {
+            return null;
+        }
     }
 
     /**
@@ -55,15 +242,34 @@ public class CommandHistory {
      */
     public static class AddCommand extends Command {
         private int taskIndex;
+        private Task addedTask;
 
-        public AddCommand(int taskIndex) {
+        /**
+         * Creates an AddCommand for a task that was just added.
+         *
+         * @param taskIndex The index the task was added at.
+         * @param addedTask The task that was added, kept so that it can be redone.
+         */
+        public AddCommand(int taskIndex, Task addedTask) {
             this.taskIndex = taskIndex;
+            this.addedTask = addedTask;
         }
 
         @Override
         public String undo(TaskList tasks) {
-            Task removedTask = tasks.removeTask(taskIndex);
-            return "Undo~ ✨Nailong removed this task:\n " + removedTask.toString();
+            addedTask = tasks.removeTask(taskIndex);
+            return "Undo~ ✨Nailong removed this task:\n " + addedTask.toString();
+        }
+
+        @Override
+        public String redo(TaskList tasks) {
+            tasks.addTaskAtIndex(addedTask, taskIndex);
+            return "Redo~ ✨\nNailong added this task back:\n " + addedTask.toString();
+        }
+
+        @Override
+        String toRecord() {
+            return UndoLog.record(UndoLog.ADD, taskIndex, addedTask);
         }
     }
 
@@ -91,6 +297,17 @@ public class CommandHistory {
             tasks.addTaskAtIndex(deletedTask, originalIndex);
             return "Undo~ ✨\nNailong restored this task to your list:\n " + deletedTask.toString();
         }
+
+        @Override
+        public String redo(TaskList tasks) {
+            deletedTask = tasks.removeTask(originalIndex);
+            return "Redo~ ✨\nNailong poofed this task away again:\n " + deletedTask.toString();
+        }
+
+        @Override
+        String toRecord() {
+            return UndoLog.record(UndoLog.DELETE, originalIndex, deletedTask);
+        }
     }
 
     /**
@@ -105,10 +322,20 @@ public class CommandHistory {
 
         @Override
         public String undo(TaskList tasks) {
-            Task task = tasks.getTask(taskIndex);
-            task.markUndone();
+            Task task = tasks.unmarkTask(taskIndex);
             return "Undo~ ✨\nNailong marked this task back to ‘not done’:\n" + task.toString();
         }
+
+        @Override
+        public String redo(TaskList tasks) {
+            Task task = tasks.markTask(taskIndex);
+            return "Redo~ ✨\nNailong marked this task as done again:\n" + task.toString();
+        }
+
+        @Override
+        String toRecord() {
+            return UndoLog.record(UndoLog.MARK, taskIndex);
+        }
     }
 
 
@@ -124,9 +351,120 @@ public class CommandHistory {
 
         @Override
         public String undo(TaskList tasks) {
-            Task task = tasks.getTask(taskIndex);
-            task.markDone();
+            Task task = tasks.markTask(taskIndex);
             return "Undo~ ✨ Nailong marked this task as done again:\\n" + task.toString();
         }
+
+        @Override
+        public String redo(TaskList tasks) {
+            Task task = tasks.unmarkTask(taskIndex);
+            return "Redo~ ✨\nNailong marked this task back to ‘not done’:\n" + task.toString();
+        }
+
+        @Override
+        String toRecord() {
+            return UndoLog.record(UndoLog.UNMARK, taskIndex);
+        }
+    }
+
+    /**
+     * Command for marking or unmarking one occurrence of a recurring task (undo flips it back).
+     * If the task at the index is no longer recurring or does not happen on the day, undo and redo
+     * throw IllegalArgumentException and the history is cleared as out of sync.
+     */
+    public static class OccurrenceCommand extends Command {
+        private int taskIndex;
+        private int day;
+        private boolean isDone;
+
+        /**
+         * Creates the command for an occurrence change that has been made.
+         *
+         * @param taskIndex Index of the recurring task (0-based).
+         * @param day Epoch day of the occurrence.
+         * @param isDone Status the occurrence was given.
+         */
+        public OccurrenceCommand(int taskIndex, int day, boolean isDone) {
+            this.taskIndex = taskIndex;
+            this.day = day;
+            this.isDone = isDone;
+        }
+
+        @Override
+        public String undo(TaskList tasks) {
+            Task occurrence = tasks.setOccurrenceDone(taskIndex, day, !isDone);
+            return "Undo~ ✨\nNailong put this day back the way it was:\n" + occurrence.toString();
+        }
+
+        @Override
+        public String redo(TaskList tasks) {
+            Task occurrence = tasks.setOccurrenceDone(taskIndex, day, isDone);
+            return "Redo~ ✨\nNailong changed this day again:\n" + occurrence.toString();
+        }
+
+        @Override
+        String toRecord() {
+            return UndoLog.record(UndoLog.OCCURRENCE, taskIndex) + UndoLog.SEPARATOR + day
+                    + UndoLog.SEPARATOR + (isDone ? '1' : '0');
+        }
+    }
+
+    /**
+     * Command made of several changes applied together (undo reverts all of them).
+     * Undo and redo are all or nothing: if one change cannot be applied, the changes already
+     * applied are reverted before the failure is passed on.
+     */
+    public static class BatchCommand extends Command {
+        private Command[] changes;
+
+        /**
+         * Creates a BatchCommand for changes that were applied in the given order.
+         *
+         * @param changes The individual changes, in the order they were applied.
+         */
+        public BatchCommand(Command[] changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public String undo(TaskList tasks) {
+            int i = changes.length - 1;
+            try {
+                for (; i >= 0; i--) {
+                    changes[i].undo(tasks);
+                }
+            } catch (RuntimeException e) {
+                for (int j = i + 1; j < changes.length; j++) {
+                    changes[j].redo(tasks);
+                }
+                throw e;
+            }
+            return "Undo~ ✨\nNailong reverted " + changes.length + " changes in one go!";
+        }
+
+        @Override
+        public String redo(TaskList tasks) {
+            int i = 0;
+            try {
+                for (; i < changes.length; i++) {
+                    changes[i].redo(tasks);
+                }
+            } catch (RuntimeException e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    changes[j].undo(tasks);
+                }
+                throw e;
+            }
+            return "Redo~ ✨\nNailong reapplied " + changes.length + " changes in one go!";
+        }
+
+        @Override
+        String toRecord() {
+            StringBuilder record = new StringBuilder(UndoLog.record(UndoLog.BATCH, changes.length));
+            for (Command change : changes) {
+                record.append('\n').append(change.toRecord());
+            }
+            return record.toString();
+        }
     }
 }
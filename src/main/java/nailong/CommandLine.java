@@ -0,0 +1,118 @@
+package nailong;
+
+import java.util.Arrays;
+
+/**
+ * One line of user input, split into whitespace-separated tokens in a single pass.
+ * Tokens are kept as offsets into the input, so parsers can take the text between two markers
+ * such as {@code /from} and {@code /to} without scanning or splitting the input again.
+ */
+class CommandLine {
+    private static final int INITIAL_TOKEN_CAPACITY = 8;
+
+    private final String input;
+    private int[] starts = new int[INITIAL_TOKEN_CAPACITY];
+    private int[] ends = new int[INITIAL_TOKEN_CAPACITY];
+    private int tokenCount;
+    private String[] parts;
+
+    /**
+     * Tokenizes the given input.
+     *
+     * @param input Line typed by the user.
+     */
+    public CommandLine(String input) {
+        this.input = input;
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            addToken(start, i);
+        }
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount == starts.length) {
+            starts = Arrays.copyOf(starts, tokenCount * 2);
+            ends = Arrays.copyOf(ends, tokenCount * 2);
+        }
+        starts[tokenCount] = start;
+        ends[tokenCount] = end;
+        tokenCount++;
+    }
+
+    /**
+     * Returns the command word in lower case, or an empty string for a blank line.
+     */
+    public String getKeyword() {
+        return tokenCount == 0 ? "" : token(0).toLowerCase();
+    }
+
+    /**
+     * Returns the number of tokens, including the command word.
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Returns the token at the given position, where position 0 is the command word.
+     */
+    public String token(int position) {
+        return input.substring(starts[position], ends[position]);
+    }
+
+    /**
+     * Returns the position of the first token after the given one that equals the marker,
+     * or -1 if there is none.
+     *
+     * @param marker Token to look for, such as {@code /by}.
+     * @param after Position to start looking after.
+     */
+    public int indexOf(String marker, int after) {
+        for (int position = after + 1; position < tokenCount; position++) {
+            if (ends[position] - starts[position] == marker.length()
+                    && input.startsWith(marker, starts[position])) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the input from the start of one token to the end of another, keeping the spacing
+     * in between as typed. Returns an empty string if the range holds no tokens.
+     *
+     * @param first Position of the first token to include.
+     * @param last Position after the last token to include.
+     */
+    public String text(int first, int last) {
+        if (first >= last) {
+            return "";
+        }
+        return input.substring(starts[first], ends[last - 1]);
+    }
+
+    /**
+     * Returns all tokens as strings, the way {@code input.trim().split("\\s+")} would.
+     */
+    public String[] parts() {
+        if (parts == null) {
+            parts = new String[Math.max(tokenCount, 1)];
+            parts[0] = "";
+            for (int i = 0; i < tokenCount; i++) {
+                parts[i] = token(i);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,94 @@
+package nailong;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import nailong.task.DateCodec;
+import nailong.task.Todo;
+
+/**
+ * Times date parsing and formatting through {@link DateCodec} against the regex and
+ * {@link DateTimeFormatter} path that tasks used before it.
+ * Each measurement is repeated for a number of rounds so the later rounds show warmed-up code.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.DateCodecBenchmark [--rounds <n>] [--operations <per round>]}.
+ */
+public class DateCodecBenchmark {
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final int DEFAULT_OPERATIONS = 2_000_000;
+    private static final String[] INPUTS = {"25/12/2099", "1/1/2100", "31/1/2099", "29/02/2096",
+        "7/7/2099", "15/08/2101", "30/11/2099", "due 3/4/2099"};
+    private static final Pattern INPUT_DATE = Pattern.compile("\\d{1,2}/\\d{1,2}/\\d{4}");
+    private static final DateTimeFormatter STRICT_INPUT_FORMAT =
+            DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    private static long sink;
+
+    /**
+     * Runs the measurements and prints nanoseconds per operation for each round.
+     *
+     * @param args Optional {@code --rounds} and {@code --operations}.
+     */
+    public static void main(String[] args) {
+        int rounds = DEFAULT_ROUNDS;
+        int operations = DEFAULT_OPERATIONS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--rounds":
+                rounds = Integer.parseInt(args[++i]);
+                break;
+            case "--operations":
+                operations = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Todo task = new Todo("benchmark");
+        int[] days = new int[INPUTS.length];
+        for (int i = 0; i < INPUTS.length; i++) {
+            days[i] = DateCodec.parseInputDate(INPUTS[i]);
+        }
+        for (int round = 1; round <= rounds; round++) {
+            System.out.printf("round %d: regex parse %.0f ns/op, validateAndParseDate %.0f ns/op, "
+                    + "DateCodec.parseInputDate %.0f ns/op%n", round,
+                    measure(operations, i -> parseWithRegex(INPUTS[i % INPUTS.length]).toEpochDay()),
+                    measure(operations, i -> task.validateAndParseDate(INPUTS[i % INPUTS.length]).toEpochDay()),
+                    measure(operations, i -> DateCodec.parseInputDate(INPUTS[i % INPUTS.length])));
+            System.out.printf("round %d: formatter %.0f ns/op, DateCodec.format %.0f ns/op%n", round,
+                    measure(operations, i -> LocalDate.ofEpochDay(days[i % days.length])
+                            .format(DateCodec.DISPLAY_FORMAT).length()),
+                    measure(operations, i -> DateCodec.format(days[i % days.length]).length()));
+        }
+        System.out.println("(checksum " + (sink & 1) + ")");
+    }
+
+    private static double measure(int operations, IntToLongFunction operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink += operation.applyAsLong(i);
+        }
+        return (System.nanoTime() - start) / (double) operations;
+    }
+
+    /**
+     * Parses a date the way tasks did before {@link DateCodec}: a fresh regex match, then a strict
+     * formatter and a read of the system clock.
+     */
+    private static LocalDate parseWithRegex(String input) {
+        Matcher matcher = INPUT_DATE.matcher(input.trim());
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Invalid date format!");
+        }
+        LocalDate date = LocalDate.parse(matcher.group(), STRICT_INPUT_FORMAT);
+        if (date.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot create tasks for past dates!");
+        }
+        return date;
+    }
+}
@@ -0,0 +1,167 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+
+/**
+ * Sorted index of deadlines by their due date and events by their start date.
+ * Entries are keyed by the epoch day in the upper half of a long and the task id in the lower half,
+ * so tasks on the same day stay in list order and a date range is a single sub-set.
+ * Recurring tasks are only remembered by id; their occurrences in the range asked about are worked
+ * out at query time and merged in, so a rule never costs one entry per occurrence.
+ * Tasks are looked up by id when a query is answered, so results always show their current status.
+ */
+class DateIndex implements TaskListListener {
+    private final TaskList tasks;
+    private final TreeSet<Long> byDate = new TreeSet<>();
+    private final TreeSet<Integer> recurringIds = new TreeSet<>();
+
+    /**
+     * Indexes the tasks already in the list and starts following its changes.
+     *
+     * @param tasks Task list to index.
+     */
+    public DateIndex(TaskList tasks) {
+        this.tasks = tasks;
+        tasks.withWriteLock(() -> {
+            rebuild();
+            tasks.addListener(this);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the deadlines due and events starting within a range of days, earliest first.
+     *
+     * @param fromDay First day of the range as an epoch day, inclusive.
+     * @param toDay Last day of the range as an epoch day, inclusive.
+     * @return Matching tasks ordered by date, then by position in the list.
+     */
+    public ArrayList<Task> between(int fromDay, int toDay) {
+        return tasks.withReadLock(() -> resolve(byDate.subSet(key(fromDay, 0), true, key(toDay, -1), true),
+                occurrenceKeys(fromDay, toDay)));
+    }
+
+    /**
+     * Returns the deadlines due and events starting before a day, earliest first.
+     *
+     * @param day Epoch day, exclusive.
+     * @return Matching tasks ordered by date, then by position in the list.
+     */
+    public ArrayList<Task> before(int day) {
+        return tasks.withReadLock(() -> resolve(byDate.headSet(key(day, 0), false),
+                occurrenceKeys(Integer.MIN_VALUE, day - 1)));
+    }
+
+    /**
+     * Returns the occurrences of recurring tasks within a range of days, earliest first.
+     *
+     * @param fromDay First day of the range as an epoch day, inclusive.
+     * @param toDay Last day of the range as an epoch day, inclusive.
+     * @return Occurrences ordered by date, then by position of their task in the list.
+     */
+    public ArrayList<Task> occurrencesBetween(int fromDay, int toDay) {
+        return tasks.withReadLock(() -> resolve(Collections.emptyNavigableSet(), occurrenceKeys(fromDay, toDay)));
+    }
+
+    /**
+     * Expands every recurring task over the range and returns the keys of its occurrences, sorted.
+     */
+    private long[] occurrenceKeys(int fromDay, int toDay) {
+        long[] keys = new long[0];
+        int count = 0;
+        for (int id : recurringIds) {
+            int[] days = ((Recurring) tasks.getTaskById(id)).occurrencesBetween(fromDay, toDay);
+            if (count + days.length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(count + days.length, keys.length * 2));
+            }
+            for (int day : days) {
+                keys[count++] = key(day, id);
+            }
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Merges dated tasks and occurrences, both already in key order, into one list.
+     */
+    private ArrayList<Task> resolve(NavigableSet<Long> keys, long[] occurrences) {
+        ArrayList<Task> result = new ArrayList<>(keys.size() + occurrences.length);
+        int next = 0;
+        for (long key : keys) {
+            for (; next < occurrences.length && occurrences[next] < key; next++) {
+                result.add(resolveOccurrence(occurrences[next]));
+            }
+            result.add(tasks.getTaskById((int) key));
+        }
+        for (; next < occurrences.length; next++) {
+            result.add(resolveOccurrence(occurrences[next]));
+        }
+        return result;
+    }
+
+    private Task resolveOccurrence(long key) {
+        return ((Recurring) tasks.getTaskById((int) key)).occurrenceOn((int) (key >> 32));
+    }
+
+    @Override
+    public void onTaskAdded(int index, Task task) {
+        if (task instanceof Recurring) {
+            recurringIds.add(task.getId());
+        } else if (isDated(task)) {
+            byDate.add(key(dayOf(task), task.getId()));
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        if (task instanceof Recurring) {
+            recurringIds.remove(task.getId());
+        } else if (isDated(task)) {
+            byDate.remove(key(dayOf(task), task.getId()));
+        }
+    }
+
+    @Override
+    public void onTaskStatusChanged(int index, Task task) {
+        // Dates do not change when a task is marked
+    }
+
+    @Override
+    public void onTasksRenumbered() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        byDate.clear();
+        recurringIds.clear();
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            onTaskAdded(i, tasks.getTask(i));
+        }
+    }
+
+    private static boolean isDated(Task task) {
+        return task instanceof Deadline || task instanceof Event;
+    }
+
+    private static int dayOf(Task task) {
+        return task instanceof Deadline ? ((Deadline) task).getByDay() : ((Event) task).getStartDay();
+    }
+
+    /**
+     * Packs a day and a task id into one key; an id of -1 gives the last key of the day.
+     */
+    private static long key(int day, int id) {
+        return ((long) day << 32) | (id & 0xFFFFFFFFL);
+    }
+}
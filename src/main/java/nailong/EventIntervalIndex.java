@@ -0,0 +1,219 @@
+package nailong;
+
+import java.util.ArrayList;
+
+import nailong.task.Event;
+import nailong.task.Task;
+
+/**
+ * Interval tree over the spans of all events in the list.
+ * Events sit in an AVL tree ordered by start day (then id), and every node remembers the latest
+ * end day in its subtree. A subtree ending before the day asked about can then be skipped as a
+ * whole, so stabbing and overlap queries cost O(log n + k) however many events there are.
+ * Events are looked up by id when a query is answered, so results always show their current status.
+ */
+class EventIntervalIndex implements TaskListListener {
+    private final TaskList tasks;
+    private Node root;
+
+    private static class Node {
+        final long key;
+        final int start;
+        final int end;
+        int maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long key, Event event) {
+            this.key = key;
+            this.start = event.getStartDay();
+            this.end = event.getEndDay();
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * Indexes the events already in the list and starts following its changes.
+     *
+     * @param tasks Task list to index.
+     */
+    public EventIntervalIndex(TaskList tasks) {
+        this.tasks = tasks;
+        tasks.withWriteLock(() -> {
+            rebuild();
+            tasks.addListener(this);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the events taking place on a day.
+     *
+     * @param day Epoch day.
+     * @return Events whose span includes the day, ordered by start day.
+     */
+    public ArrayList<Task> on(int day) {
+        return overlapping(day, day);
+    }
+
+    /**
+     * Returns the events whose span shares at least one day with a range.
+     *
+     * @param fromDay First day of the range as an epoch day, inclusive.
+     * @param toDay Last day of the range as an epoch day, inclusive.
+     * @return Overlapping events, ordered by start day.
+     */
+    public ArrayList<Task> overlapping(int fromDay, int toDay) {
+        ArrayList<Task> result = new ArrayList<>();
+        return tasks.withReadLock(() -> {
+            collect(root, fromDay, toDay, result);
+            return result;
+        });
+    }
+
+    private void collect(Node node, int fromDay, int toDay, ArrayList<Task> result) {
+        if (node == null || node.maxEnd < fromDay) {
+            return;
+        }
+        collect(node.left, fromDay, toDay, result);
+        if (node.start > toDay) {
+            return; // This node and everything to its right start too late
+        }
+        if (node.end >= fromDay) {
+            result.add(tasks.getTaskById((int) node.key));
+        }
+        collect(node.right, fromDay, toDay, result);
+    }
+
+    @Override
+    public void onTaskAdded(int index, Task task) {
+        if (task instanceof Event) {
+            Event event = (Event) task;
+            root = insert(root, new Node(key(event), event));
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        if (task instanceof Event) {
+            root = delete(root, key((Event) task));
+        }
+    }
+
+    @Override
+    public void onTaskStatusChanged(int index, Task task) {
+        // Spans do not change when an event is marked
+    }
+
+    @Override
+    public void onTasksRenumbered() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        root = null;
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            onTaskAdded(i, tasks.getTask(i));
+        }
+    }
+
+    private static long key(Event event) {
+        return ((long) event.getStartDay() << 32) | (event.getId() & 0xFFFFFFFFL);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.key < node.key) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            node.left = delete(node.left, key);
+        } else if (key > node.key) {
+            node.right = delete(node.right, key);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int maxEnd(Node node) {
+        return node == null ? Integer.MIN_VALUE : node.maxEnd;
+    }
+}
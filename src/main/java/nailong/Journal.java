@@ -0,0 +1,202 @@
+package nailong;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+import nailong.task.Recurring;
+import nailong.task.Task;
+
+/**
+ * Append-only log of task list changes kept next to the data file.
+ * Every add, delete, mark and unmark becomes one short line, so persisting a change
+ * costs a few bytes instead of a rewrite of every task.
+ * <p>
+ * Record format, one per line:
+ * <ul>
+ *   <li>{@code A|<index>|<stored task>} - task inserted at index</li>
+ *   <li>{@code D|<index>} - task at index deleted</li>
+ *   <li>{@code M|<index>} / {@code U|<index>} - task at index marked / unmarked</li>
+ *   <li>{@code O|<index>|<epoch day>|<1 or 0>} - occurrence of the recurring task at index marked / unmarked</li>
+ * </ul>
+ * Changes may be recorded on one thread while another flushes them.
+ */
+class Journal implements TaskListListener {
+    private static final char ADD = 'A';
+    private static final char DELETE = 'D';
+    private static final char MARK = 'M';
+    private static final char UNMARK = 'U';
+    private static final char OCCURRENCE = 'O';
+    private static final char SEPARATOR = '|';
+
+    private final Path journalPath;
+    private final StringBuilder pending = new StringBuilder();
+    private long sizeInBytes;
+
+    /**
+     * Creates a journal stored at the given path.
+     *
+     * @param journalPath Path of the journal file.
+     */
+    public Journal(Path journalPath) {
+        this.journalPath = journalPath;
+        this.sizeInBytes = sizeOf(journalPath);
+    }
+
+    /**
+     * Returns the path of the journal kept alongside the given data file.
+     *
+     * @param dataFile Path of the snapshot data file.
+     * @return Path of its journal.
+     */
+    public static Path pathFor(Path dataFile) {
+        return Paths.get(dataFile.toString() + ".journal");
+    }
+
+    @Override
+    public synchronized void onTaskAdded(int index, Task task) {
+        pending.append(ADD).append(SEPARATOR).append(index).append(SEPARATOR)
+                .append(task.formatToStore()).append('\n');
+    }
+
+    @Override
+    public synchronized void onTaskRemoved(int index, Task task) {
+        pending.append(DELETE).append(SEPARATOR).append(index).append('\n');
+    }
+
+    @Override
+    public synchronized void onTaskStatusChanged(int index, Task task) {
+        pending.append(task.isDone() ? MARK : UNMARK).append(SEPARATOR).append(index).append('\n');
+    }
+
+    @Override
+    public synchronized void onOccurrenceStatusChanged(int index, Task task, int day, boolean isDone) {
+        pending.append(OCCURRENCE).append(SEPARATOR).append(index).append(SEPARATOR).append(day)
+                .append(SEPARATOR).append(isDone ? '1' : '0').append('\n');
+    }
+
+    /**
+     * Appends all changes recorded since the last flush to the journal file.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    public void flush() throws IOException {
+        String records;
+        synchronized (this) {
+            if (pending.length() == 0) {
+                return;
+            }
+            records = pending.toString();
+            pending.setLength(0);
+        }
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.write(journalPath, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            synchronized (this) {
+                pending.insert(0, records);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            sizeInBytes += bytes.length;
+        }
+    }
+
+    /**
+     * Returns the number of bytes currently in the journal file.
+     */
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Moves the journal file aside so that new records start a fresh journal.
+     * Used by compaction, which folds the moved-aside records into the snapshot.
+     *
+     * @param target Path to move the current journal to.
+     * @throws IOException If the journal cannot be moved.
+     */
+    public synchronized void rotateTo(Path target) throws IOException {
+        if (Files.exists(journalPath)) {
+            Files.move(journalPath, target);
+        }
+        sizeInBytes = 0;
+    }
+
+    /**
+     * Re-applies the records of a journal file on top of tasks loaded from the snapshot.
+     * Corrupted records are skipped with a warning, the same way corrupted snapshot lines are.
+     *
+     * @param path Journal file to replay.
+     * @param tasks Tasks to apply the records to.
+     * @param parser Turns a stored task line back into a task.
+     */
+    public static void replay(Path path, ArrayList<Task> tasks, Function<String, Task> parser) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    apply(line, tasks, parser);
+                } catch (Exception e) {
+                    System.out.println("Warning: Corrupted journal entry at line " + lineNumber + ": " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+                lineNumber++;
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading journal: " + e.getMessage());
+        }
+    }
+
+    private static void apply(String line, ArrayList<Task> tasks, Function<String, Task> parser) {
+        int indexEnd = line.indexOf(SEPARATOR, 2);
+        if (line.length() < 3 || line.charAt(1) != SEPARATOR) {
+            throw new IllegalArgumentException("Unreadable journal record");
+        }
+        int index = Integer.parseInt(line.substring(2, indexEnd < 0 ? line.length() : indexEnd));
+
+        switch (line.charAt(0)) {
+        case ADD:
+            Task task = parser.apply(line.substring(indexEnd + 1));
+            if (task == null || index > tasks.size()) {
+                throw new IllegalArgumentException("Cannot restore task at position " + (index + 1));
+            }
+            tasks.add(index, task);
+            break;
+        case DELETE:
+            tasks.remove(index);
+            break;
+        case MARK:
+            tasks.get(index).markDone();
+            break;
+        case UNMARK:
+            tasks.get(index).markUndone();
+            break;
+        case OCCURRENCE:
+            String[] fields = line.substring(indexEnd + 1).split("\\|");
+            ((Recurring) tasks.get(index)).setOccurrenceDone(Integer.parseInt(fields[0]), fields[1].equals("1"));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record type '" + line.charAt(0) + "'");
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+import nailong.task.Task;
+
+/**
+ * Inverted index from the words of each task description to the ids of the tasks containing them,
+ * used for typo-tolerant searches. Follows the task list as a listener, so adds, deletes and undos
+ * keep it up to date. The words themselves are kept in a {@link BkTree}, and a search only touches
+ * the posting lists of the words close enough to the keyword.
+ */
+class KeywordIndex implements TaskListListener {
+    private static final int MIN_WORDS_BEFORE_PRUNING = 1024;
+
+    private final TaskList tasks;
+    private final HashMap<String, PostingList> postings = new HashMap<>();
+    private BkTree dictionary = new BkTree();
+
+    /**
+     * Indexes the tasks already in the list and starts following its changes.
+     *
+     * @param tasks Task list to index.
+     */
+    public KeywordIndex(TaskList tasks) {
+        this.tasks = tasks;
+        tasks.withWriteLock(() -> {
+            rebuild();
+            tasks.addListener(this);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the ids of the tasks having a word within the given number of edits of the keyword.
+     * Tasks with closer words come first; tasks at the same distance are in list order.
+     *
+     * @param keyword Possibly misspelt word to look for.
+     * @param maxEdits Largest edit distance accepted.
+     * @return Ids of the matching tasks, closest first.
+     */
+    public int[] searchFuzzy(String keyword, int maxEdits) {
+        return tasks.withReadLock(() -> {
+            String query = keyword.toLowerCase(Locale.ROOT);
+            int[][] idsByDistance = new int[maxEdits + 1][0];
+            for (BkTree.Match match : dictionary.search(query, maxEdits)) {
+                PostingList list = postings.get(match.word);
+                if (list != null) {
+                    idsByDistance[match.distance] = PostingList.union(idsByDistance[match.distance], list.toArray());
+                }
+            }
+            BitSet seen = new BitSet();
+            int[] result = new int[0];
+            int count = 0;
+            for (int[] ids : idsByDistance) {
+                result = Arrays.copyOf(result, count + ids.length);
+                for (int id : ids) {
+                    if (!seen.get(id)) {
+                        seen.set(id);
+                        result[count++] = id;
+                    }
+                }
+            }
+            return Arrays.copyOf(result, count);
+        });
+    }
+
+    @Override
+    public void onTaskAdded(int index, Task task) {
+        for (String word : tokenize(task.getDescription())) {
+            PostingList list = postings.get(word);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(word, list);
+                dictionary.add(word);
+            }
+            list.add(task.getId());
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        for (String word : tokenize(task.getDescription())) {
+            PostingList list = postings.get(word);
+            if (list != null) {
+                list.remove(task.getId());
+                if (list.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+        // Words are not removed from the tree; once most of it is unused, start it over
+        if (dictionary.size() > MIN_WORDS_BEFORE_PRUNING && dictionary.size() > 2 * postings.size()) {
+            dictionary = new BkTree();
+            for (String word : postings.keySet()) {
+                dictionary.add(word);
+            }
+        }
+    }
+
+    @Override
+    public void onTaskStatusChanged(int index, Task task) {
+        // The words of a task do not depend on whether it is done
+    }
+
+    @Override
+    public void onTasksRenumbered() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        postings.clear();
+        dictionary = new BkTree();
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            onTaskAdded(i, tasks.getTask(i));
+        }
+    }
+
+    /**
+     * Splits text into lower-case runs of letters and digits.
+     *
+     * @param text Text to split.
+     * @return Words in the order they appear, duplicates removed.
+     */
+    static List<String> tokenize(String text) {
+        ArrayList<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
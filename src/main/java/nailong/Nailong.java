@@ -1,7 +1,17 @@
 package nailong;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+import nailong.task.DateCodec;
+import nailong.task.Event;
 import nailong.task.Task;
 
 /**
@@ -13,7 +23,13 @@ public class Nailong {
     private final Storage storage;
     private final Ui ui;
     private CommandHistory commandHistory;
+    private TaskVersions versions;
     private final Parser parser;
+    private final TrigramIndex findIndex;
+    private final KeywordIndex wordIndex;
+    private final DateIndex dateIndex;
+    private final EventIntervalIndex eventIndex;
+    private final Map<String, Function<CommandLine, String>> commands = new HashMap<>();
 
     /**
      * Constructs a new Nailong application instance with the specified file path for data storage.
@@ -24,52 +40,118 @@ public class Nailong {
      *                 If the file doesn't exist, it will be created automatically.
      */
     public Nailong(String filePath) {
+        this(filePath, new StorageOptions());
+    }
+
+    /**
+     * Constructs a new Nailong application instance that persists tasks as described by the options,
+     * for example appending changes to a journal instead of rewriting the data file.
+     *
+     * @param filePath The file path where tasks will be saved and loaded from.
+     * @param storageOptions How changes to the task list should be persisted.
+     */
+    public Nailong(String filePath, StorageOptions storageOptions) {
         ui = new Ui();
-        storage = new Storage(filePath);
-        tasks = new TaskList(storage.load());
-        commandHistory = new CommandHistory();
+        storage = new Storage(filePath, storageOptions);
+        ArrayList<Task> loaded = storage.load();
+        tasks = storageOptions.isColumnar()
+                ? new TaskList(new ColumnarTaskSequence(loaded))
+                : new TaskList(loaded);
+        storage.watch(tasks);
+        findIndex = new TrigramIndex(tasks);
+        wordIndex = new KeywordIndex(tasks);
+        dateIndex = new DateIndex(tasks);
+        eventIndex = new EventIntervalIndex(tasks);
+        // The log is written by each save, after the tasks, so it never gets ahead of the data file
+        UndoLog undoLog = new UndoLog(UndoLog.pathFor(Paths.get(filePath)), storage::parseTask, true);
+        storage.saveHistoryWith(undoLog);
+        commandHistory = new CommandHistory(storageOptions.getHistoryDepth(), undoLog);
+        // Columnar storage hands out a new object per lookup, so versions would hold every task twice
+        versions = storageOptions.isColumnar() ? null : new TaskVersions(tasks, storageOptions.getHistoryDepth());
         parser = new Parser();
+        registerCommands();
     }
 
-    public String getResponse(String input) {
-        String[] parts = input.trim().split("\\s+");
-        String command = parts[0].toLowerCase();
-
-        switch (command) {
-        case "mark":
-            return handleMarkCommand(parts);
-        case "unmark":
-            return handleUnmarkCommand(parts);
-        case "bye":
+    /**
+     * Maps every command word to its handler.
+     * Each command that changes the list runs under the write lock as a whole, so the index it
+     * checked, the change, its undo entry and the save cannot interleave with another front-end.
+     */
+    private void registerCommands() {
+        commands.put("mark", line -> changeTasks(() -> handleMarkCommand(line.parts())));
+        commands.put("unmark", line -> changeTasks(() -> handleUnmarkCommand(line.parts())));
+        commands.put("bye", line -> {
+            flush();
             return ui.showGoodbye();
-        case "list":
-            return ui.showTaskList(tasks);
-        case "todo":
-            return handleTodoCommand(input);
-        case "deadline":
-            return handleDeadlineCommand(input);
-        case "event":
-            return handleEventCommand(input);
-        case "delete":
-            return handleDeleteCommand(parts);
-        case "find":
-            return handleFindCommand(parts);
-        case "undo":
-            return commandHistory.undoLastCommand(tasks, storage);
-        default:
+        });
+        commands.put("list", line -> handleListCommand(line.parts()));
+        commands.put("todo", line -> changeTasks(() -> handleTodoCommand(line)));
+        commands.put("deadline", line -> changeTasks(() -> handleDeadlineCommand(line)));
+        commands.put("event", line -> changeTasks(() -> handleEventCommand(line)));
+        commands.put("recur", line -> changeTasks(() -> handleRecurCommand(line)));
+        commands.put("delete", line -> changeTasks(() -> handleDeleteCommand(line.parts())));
+        commands.put("find", line -> handleFindCommand(line.parts()));
+        commands.put("find~", line -> handleFuzzyFindCommand(line.parts()));
+        commands.put("due", line -> handleDueCommand(line.parts()));
+        commands.put("before", line -> handleBeforeCommand(line.parts()));
+        commands.put("on", line -> handleOnCommand(line.parts()));
+        commands.put("undo", line -> changeTasks(() -> commandHistory.undoLastCommand(tasks, storage)));
+        commands.put("redo", line -> changeTasks(() -> commandHistory.redoLastCommand(tasks, storage)));
+    }
+
+    public String getResponse(String input) {
+        DateCodec.refreshToday();
+        CommandLine line = new CommandLine(input);
+        Function<CommandLine, String> command = commands.get(line.getKeyword());
+        if (command == null) {
             return ui.showUnknownCommand();
         }
+        return command.apply(line);
+    }
+
+    /**
+     * Runs a command that may change the list under the write lock and records the resulting
+     * version of the list for {@code list @-N}.
+     */
+    private String changeTasks(Supplier<String> command) {
+        return tasks.withWriteLock(() -> {
+            String response = command.get();
+            if (versions != null) {
+                versions.record();
+            }
+            return response;
+        });
+    }
+
+    private String handleListCommand(String[] parts) {
+        try {
+            int stepsBack = parser.parseListStepsBack(parts);
+            if (stepsBack == 0) {
+                return tasks.withReadLock(() -> ui.showTaskList(tasks));
+            }
+            if (versions == null) {
+                return ui.showError("Past versions of the list are not kept for columnar storage!");
+            }
+            return tasks.withReadLock(() -> ui.showPastTaskList(stepsBack, versions.describe(stepsBack)));
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
     }
 
     private String handleMarkCommand(String[] parts) {
+        if (parser.isBatchSelection(parts)) {
+            return handleBatchStatusCommand(parts[1], true);
+        }
+        if (parser.isOccurrenceSelection(parts)) {
+            return handleOccurrenceStatusCommand(parts, true);
+        }
         try {
             int index = parser.parseTaskIndex(parts, tasks.getTaskListSize());
             if (index < 0) {
                 return ui.showError(parser.getIndexErrorMessage(index, "mark"));
             }
 
-            Task task = tasks.getTask(index);
-            task.markDone();
+            Task task = tasks.markTask(index);
             commandHistory.addCommand(new CommandHistory.MarkCommand(index));
             storage.save(tasks);
             return ui.showTaskMarked(task);
@@ -78,11 +160,11 @@ public class Nailong {
         }
     }
 
-    private String handleTodoCommand(String input) {
+    private String handleTodoCommand(CommandLine line) {
         try {
-            Task task = parser.parseTodoCommand(input);
+            Task task = parser.parseTodoCommand(line);
             tasks.addTask(task);
-            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1));
+            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1, task));
             storage.save(tasks);
             return ui.showTaskAdded(task, tasks.getTaskListSize());
         } catch (IllegalArgumentException e) {
@@ -90,11 +172,11 @@ public class Nailong {
         }
     }
 
-    private String handleDeadlineCommand(String input) {
+    private String handleDeadlineCommand(CommandLine line) {
         try {
-            Task task = parser.parseDeadlineCommand(input);
+            Task task = parser.parseDeadlineCommand(line);
             tasks.addTask(task);
-            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1));
+            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1, task));
             storage.save(tasks);
             return ui.showTaskAdded(task, tasks.getTaskListSize());
         } catch (IllegalArgumentException e) {
@@ -102,11 +184,24 @@ public class Nailong {
         }
     }
 
-    private String handleEventCommand(String input) {
+    private String handleEventCommand(CommandLine line) {
         try {
-            Task task = parser.parseEventCommand(input);
+            Event event = parser.parseEventCommand(line);
+            ArrayList<Task> conflicts = eventIndex.overlapping(event.getStartDay(), event.getEndDay());
+            tasks.addTask(event);
+            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1, event));
+            storage.save(tasks);
+            return ui.showTaskAdded(event, tasks.getTaskListSize()) + ui.showEventConflicts(conflicts);
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    private String handleRecurCommand(CommandLine line) {
+        try {
+            Task task = parser.parseRecurCommand(line);
             tasks.addTask(task);
-            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1));
+            commandHistory.addCommand(new CommandHistory.AddCommand(tasks.getTaskListSize() - 1, task));
             storage.save(tasks);
             return ui.showTaskAdded(task, tasks.getTaskListSize());
         } catch (IllegalArgumentException e) {
@@ -115,6 +210,9 @@ public class Nailong {
     }
 
     private String handleDeleteCommand(String[] parts) {
+        if (parser.isBatchSelection(parts)) {
+            return handleBatchDeleteCommand(parts[1]);
+        }
         try {
             int index = parser.parseTaskIndex(parts, tasks.getTaskListSize());
             if (index < 0) {
@@ -132,14 +230,19 @@ public class Nailong {
     }
 
     private String handleUnmarkCommand(String[] parts) {
+        if (parser.isBatchSelection(parts)) {
+            return handleBatchStatusCommand(parts[1], false);
+        }
+        if (parser.isOccurrenceSelection(parts)) {
+            return handleOccurrenceStatusCommand(parts, false);
+        }
         try {
             int index = parser.parseTaskIndex(parts, tasks.getTaskListSize());
             if (index < 0) {
                 return ui.showError(parser.getIndexErrorMessage(index, "unmark"));
             }
 
-            Task task = tasks.getTask(index);
-            task.markUndone();
+            Task task = tasks.unmarkTask(index);
             commandHistory.addCommand(new CommandHistory.UnmarkCommand(index));
             storage.save(tasks);
             return ui.showTaskUnmarked(task);
@@ -148,23 +251,179 @@ public class Nailong {
         }
     }
 
+    /**
+     * Marks or unmarks the occurrence of a recurring task on one day.
+     */
+    private String handleOccurrenceStatusCommand(String[] parts, boolean isDone) {
+        String commandName = isDone ? "mark" : "unmark";
+        try {
+            int index = parser.parseTaskIndex(parts, tasks.getTaskListSize());
+            if (index < 0) {
+                return ui.showError(parser.getIndexErrorMessage(index, commandName));
+            }
+            int day = parser.parseOccurrenceDay(parts, commandName);
+
+            Task occurrence = tasks.setOccurrenceDone(index, day, isDone);
+            commandHistory.addCommand(new CommandHistory.OccurrenceCommand(index, day, isDone));
+            storage.save(tasks);
+            return isDone ? ui.showTaskMarked(occurrence) : ui.showTaskUnmarked(occurrence);
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Marks or unmarks every selected task whose status differs, as one undo step and one save.
+     */
+    private String handleBatchStatusCommand(String selection, boolean isDone) {
+        try {
+            int[] indices = selectTasks(selection);
+            CommandHistory.Command[] changes = new CommandHistory.Command[indices.length];
+            int changedCount = 0;
+            for (int index : indices) {
+                if (tasks.getTask(index).isDone() == isDone) {
+                    continue;
+                }
+                if (isDone) {
+                    tasks.markTask(index);
+                    changes[changedCount++] = new CommandHistory.MarkCommand(index);
+                } else {
+                    tasks.unmarkTask(index);
+                    changes[changedCount++] = new CommandHistory.UnmarkCommand(index);
+                }
+            }
+            if (changedCount > 0) {
+                commandHistory.addCommand(new CommandHistory.BatchCommand(Arrays.copyOf(changes, changedCount)));
+                storage.save(tasks);
+            }
+            return ui.showTasksStatusChanged(changedCount, isDone);
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes every selected task as one undo step and one save.
+     */
+    private String handleBatchDeleteCommand(String selection) {
+        try {
+            int[] indices = selectTasks(selection);
+            CommandHistory.Command[] changes = new CommandHistory.Command[indices.length];
+            // Deleting from the back keeps the positions of the tasks still to be deleted valid
+            for (int i = indices.length - 1; i >= 0; i--) {
+                Task task = tasks.removeTask(indices[i]);
+                changes[indices.length - 1 - i] = new CommandHistory.DeleteCommand(task, indices[i]);
+            }
+            if (indices.length > 0) {
+                commandHistory.addCommand(new CommandHistory.BatchCommand(changes));
+                storage.save(tasks);
+            }
+            return ui.showTasksDeleted(indices.length, tasks.getTaskListSize());
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the indices, in list order, of the tasks picked by a batch selection.
+     */
+    private int[] selectTasks(String selection) {
+        int size = tasks.getTaskListSize();
+        switch (selection.toLowerCase()) {
+        case "all":
+            return IntStream.range(0, size).toArray();
+        case "done":
+            return IntStream.range(0, size).filter(i -> tasks.getTask(i).isDone()).toArray();
+        case "undone":
+            return IntStream.range(0, size).filter(i -> !tasks.getTask(i).isDone()).toArray();
+        default:
+            int[] range = parser.parseTaskRange(selection, size);
+            return IntStream.rangeClosed(range[0], range[1]).toArray();
+        }
+    }
+
     private String handleFindCommand(String[] parts) {
         try {
-            String keyword = parser.parseFindCommand(parts);
+            List<List<String>> keywords = parser.parseFindCommand(parts);
+            ArrayList<Task> matchingTasks = findIndex.search(keywords);
+            return ui.showFindResults(matchingTasks);
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    private String handleFuzzyFindCommand(String[] parts) {
+        try {
+            String keyword = parser.parseFuzzyFindKeyword(parts);
+            int maxEdits = parser.parseFuzzyFindMaxEdits(parts);
             ArrayList<Task> matchingTasks = new ArrayList<>();
 
-            for (int i = 0; i < tasks.getTaskListSize(); i++) {
-                if (tasks.getTask(i).toString().contains(keyword)) {
-                    matchingTasks.add(tasks.getTask(i));
+            tasks.withReadLock(() -> {
+                for (int id : wordIndex.searchFuzzy(keyword, maxEdits)) {
+                    matchingTasks.add(tasks.getTaskById(id));
                 }
-            }
+                return matchingTasks;
+            });
             return ui.showFindResults(matchingTasks);
         } catch (IllegalArgumentException e) {
             return ui.showError(e.getMessage());
         }
     }
 
+    private String handleDueCommand(String[] parts) {
+        try {
+            int[] range = parser.parseDueRange(parts);
+            return ui.showDueTasks(dateIndex.between(range[0], range[1]));
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    private String handleBeforeCommand(String[] parts) {
+        try {
+            int day = parser.parseBeforeDate(parts);
+            return ui.showDueTasks(dateIndex.before(day));
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    private String handleOnCommand(String[] parts) {
+        try {
+            int day = parser.parseOnDate(parts);
+            ArrayList<Task> happening = eventIndex.on(day);
+            happening.addAll(dateIndex.occurrencesBetween(day, day));
+            return ui.showEventsOn(happening);
+        } catch (IllegalArgumentException e) {
+            return ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     */
+    int getTaskCount() {
+        return tasks.getTaskListSize();
+    }
+
     public String getWelcomeMessage() {
         return ui.showWelcome();
     }
+
+    /**
+     * Blocks until every change made so far, and its undo history, is on disk.
+     * Used as a checkpoint when saves are deferred.
+     */
+    public void flush() {
+        // Every change to the history is followed by a save, which writes the history too
+        storage.flush();
+    }
+
+    /**
+     * Writes any changes that are still pending and stops background persistence.
+     * Should be called once when the application shuts down.
+     */
+    public void close() {
+        storage.close();
+    }
 }
@@ -0,0 +1,259 @@
+package nailong;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * Hosts the task lists of many users in one process, with one data file per user in a shared folder.
+ * A user's {@link Nailong} is loaded on their first command and kept in a least-recently-used cache.
+ * Once the loaded lists are estimated to need more memory than the budget, the lists used longest ago
+ * are flushed to disk and dropped, and are loaded again from their files when next used.
+ * <p>
+ * A list is never dropped while a command is running on it, so the budget may be exceeded for as
+ * long as every loaded list is busy.
+ * <p>
+ * Loading and saving a list happen outside the host lock, so a slow disk only holds up the users
+ * whose lists are being read or written. A user whose evicted list is still being saved waits for
+ * the save to finish before the list is loaded again.
+ */
+public class NailongHost implements AutoCloseable {
+    /** Measured heap cost of a loaded task, including its search indexes and list versions. */
+    static final long ESTIMATED_BYTES_PER_TASK = 640;
+    /** Measured heap cost of a loaded instance with no tasks. */
+    static final long ESTIMATED_BYTES_PER_INSTANCE = 1024;
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path dataFolder;
+    private final StorageOptions storageOptions;
+    private final long memoryBudgetBytes;
+    /** Loaded lists in access order, so the first entry is the one used longest ago. */
+    private final LinkedHashMap<String, Entry> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    /** Saves of evicted lists still in progress, by user. */
+    private final HashMap<String, CompletableFuture<Void>> closing = new HashMap<>();
+    private long estimatedBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    private static class Entry {
+        private final String user;
+        /** Completed once the list has been read from disk by the first command that needed it. */
+        private final CompletableFuture<Nailong> nailong = new CompletableFuture<>();
+        /** Completed once the list has been saved after being evicted. */
+        private final CompletableFuture<Void> saved = new CompletableFuture<>();
+        private long estimatedBytes;
+        private int activeCommands = 0;
+
+        private Entry(String user) {
+            this.user = user;
+        }
+    }
+
+    /**
+     * Creates a host that keeps user data files in the given folder.
+     *
+     * @param dataFolder Folder holding one {@code <user>.txt} data file per user.
+     * @param storageOptions How each user's task list is persisted.
+     * @param memoryBudgetBytes Estimated heap the loaded task lists may use together.
+     */
+    public NailongHost(Path dataFolder, StorageOptions storageOptions, long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive!");
+        }
+        this.dataFolder = dataFolder;
+        this.storageOptions = storageOptions;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Runs a command against the given user's task list, loading it first if needed.
+     *
+     * @param user Name of the user, made of letters, digits, dashes and underscores.
+     * @param input Command to run.
+     * @return Response to the command.
+     */
+    public String getResponse(String user, String input) {
+        Entry entry = acquire(user);
+        try {
+            return entry.nailong.join().getResponse(input);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * Returns the user's entry, pinned so that it is not evicted, once its list is loaded.
+     */
+    private Entry acquire(String user) {
+        if (!isValidUserName(user)) {
+            throw new IllegalArgumentException("Invalid user name: " + user);
+        }
+        Entry entry;
+        CompletableFuture<Void> previousSave = null;
+        synchronized (this) {
+            entry = loaded.get(user);
+            if (entry != null) {
+                hitCount++;
+            } else {
+                missCount++;
+                entry = new Entry(user);
+                loaded.put(user, entry);
+                previousSave = closing.getOrDefault(user, CompletableFuture.completedFuture(null));
+            }
+            entry.activeCommands++;
+        }
+        if (previousSave != null) {
+            load(entry, previousSave);
+        }
+        try {
+            entry.nailong.join();
+        } catch (CompletionException e) {
+            synchronized (this) {
+                entry.activeCommands--;
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return entry;
+    }
+
+    private void load(Entry entry, CompletableFuture<Void> previousSave) {
+        try {
+            // The file must not be read while the evicted copy of the list is still being written
+            previousSave.join();
+            Nailong nailong = new Nailong(dataFolder.resolve(entry.user + ".txt").toString(), storageOptions);
+            updateEstimate(entry, nailong);
+            entry.nailong.complete(nailong);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loaded.remove(entry.user, entry);
+            }
+            entry.nailong.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Returns whether the name can be used as a user's data file name.
+     */
+    static boolean isValidUserName(String user) {
+        return USER_NAME.matcher(user).matches();
+    }
+
+    private void release(Entry entry) {
+        Nailong nailong = entry.nailong.getNow(null);
+        if (nailong != null) {
+            updateEstimate(entry, nailong);
+        }
+        List<Entry> evicted;
+        synchronized (this) {
+            entry.activeCommands--;
+            evicted = evictUntilWithinBudget();
+        }
+        for (Entry victim : evicted) {
+            try {
+                victim.nailong.join().close();
+            } finally {
+                victim.saved.complete(null);
+                synchronized (this) {
+                    closing.remove(victim.user, victim.saved);
+                }
+            }
+        }
+    }
+
+    private void updateEstimate(Entry entry, Nailong nailong) {
+        // Counted before taking the host lock, as counting waits for any command running on the list
+        long estimate = ESTIMATED_BYTES_PER_INSTANCE + ESTIMATED_BYTES_PER_TASK * nailong.getTaskCount();
+        synchronized (this) {
+            if (loaded.get(entry.user) != entry) {
+                return; // Evicted in the meantime
+            }
+            estimatedBytes += estimate - entry.estimatedBytes;
+            entry.estimatedBytes = estimate;
+        }
+    }
+
+    /**
+     * Drops the least recently used idle lists until the estimate is within budget, and returns them
+     * so that the caller can save them after letting go of the host lock.
+     */
+    private List<Entry> evictUntilWithinBudget() {
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> leastRecentFirst = loaded.values().iterator();
+        while (estimatedBytes > memoryBudgetBytes && leastRecentFirst.hasNext()) {
+            Entry entry = leastRecentFirst.next();
+            if (entry.activeCommands > 0) {
+                continue;
+            }
+            leastRecentFirst.remove();
+            estimatedBytes -= entry.estimatedBytes;
+            evictionCount++;
+            closing.put(entry.user, entry.saved);
+            evicted.add(entry);
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of commands that found their user's list already loaded.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of commands that had to load their user's list from disk.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of lists dropped to stay within the memory budget.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of task lists currently loaded.
+     */
+    public synchronized int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Returns the estimated heap used by the loaded task lists.
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Saves and closes every loaded task list.
+     */
+    @Override
+    public void close() {
+        List<Entry> entries;
+        List<CompletableFuture<Void>> saves;
+        synchronized (this) {
+            entries = new ArrayList<>(loaded.values());
+            loaded.clear();
+            estimatedBytes = 0;
+            saves = new ArrayList<>(closing.values());
+        }
+        for (Entry entry : entries) {
+            Nailong nailong = entry.nailong.exceptionally(e -> null).join();
+            if (nailong != null) {
+                nailong.close();
+            }
+        }
+        saves.forEach(CompletableFuture::join);
+    }
+}
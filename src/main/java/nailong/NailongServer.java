@@ -0,0 +1,249 @@
+package nailong;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Serves one Nailong instance to local tools over TCP, so that scripts can add and query tasks
+ * while the data file stays owned by a single process.
+ * <p>
+ * Each line a client sends is one command. Each response is sent back as its lines followed by a
+ * line holding a single {@code .}; response lines that start with a dot get a second one, the way
+ * SMTP does it. Clients may send many commands without waiting: responses come back in order and
+ * are only flushed once no more commands are waiting to be read. {@code bye} ends the session.
+ * <p>
+ * Every connection gets its own thread, a virtual thread when the JVM has them. Changes from all
+ * connections are serialized by the task list's lock, as they are for the GUI.
+ * <p>
+ * A server backed by a {@link NailongHost} serves one task list per user instead, and every session
+ * must start with {@code user <name>} to pick the list its commands go to.
+ */
+public class NailongServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+    static final String END_OF_RESPONSE = ".";
+    /** Connections that may wait to be accepted, enough for a burst of a thousand local clients. */
+    private static final int CONNECTION_BACKLOG = 1024;
+    private static final long DEFAULT_USERS_BUDGET_MEGABYTES = 256;
+
+    private final Nailong nailong;
+    private final NailongHost host;
+    private final ServerSocket serverSocket;
+    private final ThreadFactory connectionThreads = connectionThreadFactory();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private Thread acceptThread;
+
+    /**
+     * Binds a server for the given instance to a port on the loopback interface.
+     *
+     * @param nailong Instance that answers every connection.
+     * @param port Port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public NailongServer(Nailong nailong, int port) throws IOException {
+        this(nailong, null, port);
+    }
+
+    /**
+     * Binds a server that serves the task list of whichever user each session names.
+     *
+     * @param host Host that loads and caches the task list of each user.
+     * @param port Port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public NailongServer(NailongHost host, int port) throws IOException {
+        this(null, host, port);
+    }
+
+    private NailongServer(Nailong nailong, NailongHost host, int port) throws IOException {
+        this.nailong = nailong;
+        this.host = host;
+        this.serverSocket = new ServerSocket(port, CONNECTION_BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     */
+    public void start() {
+        acceptThread = new Thread(this::acceptConnections, "nailong-server");
+        acceptThread.start();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                connectionThreads.newThread(() -> serve(socket)).start();
+            } catch (SocketException e) {
+                return; // The server socket was closed
+            } catch (IOException e) {
+                System.out.println("Failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String user = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                CommandLine command = new CommandLine(line);
+                if (host != null && user == null) {
+                    user = selectUser(command);
+                    writeResponse(out, user == null ? "Start the session with: user <name>" : "Hello " + user);
+                } else if (host != null) {
+                    writeResponse(out, host.getResponse(user, line));
+                } else {
+                    writeResponse(out, nailong.getResponse(line));
+                }
+                if (command.getKeyword().equals("bye")) {
+                    break;
+                }
+                // Pipelined commands are answered together in one write
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; nothing to answer
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private static String selectUser(CommandLine command) {
+        boolean isUserCommand = command.getKeyword().equals("user") && command.getTokenCount() == 2;
+        return isUserCommand && NailongHost.isValidUserName(command.token(1)) ? command.token(1) : null;
+    }
+
+    private static void writeResponse(Writer out, String response) throws IOException {
+        for (String line : response.split("\n", -1)) {
+            if (line.startsWith(END_OF_RESPONSE)) {
+                out.write(END_OF_RESPONSE);
+            }
+            out.write(line);
+            out.write('\n');
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        if (acceptThread != null) {
+            try {
+                acceptThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns a factory for virtual threads when the running JVM has them, and for daemon
+     * platform threads otherwise. Looked up reflectively so the code still builds for Java 17.
+     */
+    static ThreadFactory connectionThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return runnable -> {
+                Thread thread = new Thread(runnable, "nailong-connection");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    /**
+     * Serves the task list in the given data file, or one list per user from a folder,
+     * until the process is stopped.
+     *
+     * @param args Optional {@code --data <file>} or {@code --users <folder>}, {@code --budget-mb <megabytes>}
+     *             for the lists loaded at once in the users folder, and {@code --port <port>}.
+     */
+    public static void main(String[] args) throws IOException {
+        String dataFile = "./data/Nailong.txt";
+        String usersFolder = null;
+        long budgetMegabytes = DEFAULT_USERS_BUDGET_MEGABYTES;
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--data":
+                dataFile = args[++i];
+                break;
+            case "--users":
+                usersFolder = args[++i];
+                break;
+            case "--budget-mb":
+                budgetMegabytes = Long.parseLong(args[++i]);
+                break;
+            case "--port":
+                port = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        StorageOptions options = new StorageOptions()
+                .withWriteBehind(StorageOptions.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                        StorageOptions.DEFAULT_MAX_FLUSH_LATENCY_MILLIS);
+        NailongServer server;
+        Runnable closeTasks;
+        if (usersFolder == null) {
+            Nailong nailong = new Nailong(dataFile, options);
+            server = new NailongServer(nailong, port);
+            closeTasks = nailong::close;
+        } else {
+            NailongHost host = new NailongHost(Paths.get(usersFolder), options, budgetMegabytes * 1024 * 1024);
+            server = new NailongServer(host, port);
+            closeTasks = host::close;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.out.println("Failed to stop server: " + e.getMessage());
+            }
+            closeTasks.run();
+        }));
+        server.start();
+        System.out.println("Nailong is listening on 127.0.0.1:" + server.getPort());
+    }
+}
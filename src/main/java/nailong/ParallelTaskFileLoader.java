@@ -0,0 +1,176 @@
+package nailong;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import nailong.task.Task;
+
+/**
+ * Loads large pipe-format task files using every core.
+ * The file is memory-mapped and cut into chunks at line boundaries. The chunks are parsed in
+ * parallel on a ForkJoin pool and the per-chunk task lists are joined back in file order.
+ * Warnings about corrupted lines are collected per chunk and printed afterwards with the same
+ * line numbers a line-by-line load would report.
+ */
+class ParallelTaskFileLoader {
+    private static final int MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final int MAX_CHUNK_BYTES = 64 * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Parses one stored line into a task, reporting problems through a warning consumer.
+     */
+    interface LineParser {
+        Task parse(String line, Consumer<String> warnings);
+    }
+
+    /**
+     * Tasks parsed from one chunk, and the warnings to print for it.
+     */
+    private static class ChunkResult {
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private final List<Warning> warnings = new ArrayList<>();
+        private int lineCount = 0;
+    }
+
+    /**
+     * A warning raised at a line whose position in the whole file is not known until earlier
+     * chunks have been counted.
+     */
+    private static class Warning {
+        private final int chunkLine;
+        private final String line;
+        private final String message;
+
+        Warning(int chunkLine, String line, String message) {
+            this.chunkLine = chunkLine;
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * Prints the warning.
+         *
+         * @param firstLineNumber File line number of the chunk's first line.
+         */
+        void print(int firstLineNumber) {
+            if (line == null) {
+                System.out.println(message);
+                return;
+            }
+            System.out.println("Warning: Corrupted data at line " + (firstLineNumber + chunkLine) + ": " + line);
+            System.out.println("Error: " + message);
+        }
+    }
+
+    /**
+     * Loads every task in a pipe-format file.
+     *
+     * @param path File to load.
+     * @param parser Parses a single stored line.
+     * @return Tasks in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ArrayList<Task> load(Path path, LineParser parser) throws IOException {
+        List<ForkJoinTask<ChunkResult>> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parallelism = ForkJoinPool.commonPool().getParallelism();
+            long chunkBytes = Math.max(MIN_CHUNK_BYTES,
+                    Math.min(MAX_CHUNK_BYTES, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(channel, Math.min(start + chunkBytes, size), size);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chunks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(chunk, parser)));
+                start = end;
+            }
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        int firstLineNumber = 1;
+        for (ForkJoinTask<ChunkResult> chunk : chunks) {
+            ChunkResult result = chunk.join();
+            tasks.addAll(result.tasks);
+            for (Warning warning : result.warnings) {
+                warning.print(firstLineNumber);
+            }
+            firstLineNumber += result.lineCount;
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the offset just past the first line break at or after the given position.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long offset = position;
+        while (offset < size) {
+            window.clear();
+            int read = channel.read(window, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static ChunkResult parseChunk(ByteBuffer chunk, LineParser parser) {
+        byte[] bytes = new byte[chunk.remaining()];
+        chunk.get(bytes);
+
+        ChunkResult result = new ChunkResult();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            parseLine(line, result, parser);
+
+            // Accept \n, \r and \r\n line endings, like BufferedReader.readLine does
+            int next = lineEnd;
+            if (next < bytes.length && bytes[next] == '\r') {
+                next++;
+            }
+            if (next < bytes.length && bytes[next] == '\n') {
+                next++;
+            }
+            lineStart = next;
+        }
+        return result;
+    }
+
+    private static void parseLine(String line, ChunkResult result, LineParser parser) {
+        int chunkLine = result.lineCount;
+        try {
+            Task task = parser.parse(line.trim(),
+                    message -> result.warnings.add(new Warning(chunkLine, null, message)));
+            if (task != null) {
+                result.tasks.add(task);
+            }
+        } catch (Exception e) {
+            result.warnings.add(new Warning(chunkLine, line, e.getMessage()));
+        }
+        result.lineCount++;
+    }
+}
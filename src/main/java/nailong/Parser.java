@@ -1,7 +1,12 @@
 package nailong;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import nailong.task.DateCodec;
 import nailong.task.Deadline;
 import nailong.task.Event;
+import nailong.task.Recurring;
 import nailong.task.Todo;
 
 /**
@@ -10,10 +15,7 @@ import nailong.task.Todo;
  */
 public class Parser {
     // Constants for command parsing
-    private static final int TODO_COMMAND_LENGTH = 5;
-    private static final int DEADLINE_COMMAND_LENGTH = 9;
-    private static final int EVENT_COMMAND_LENGTH = 6;
-    private static final int EXPECTED_EVENT_PARTS_COUNT = 3;
+    private static final int MAX_FUZZY_EDITS = 3;
 
     /**
      * Parses and validates task index from command parts.
@@ -39,53 +41,117 @@ public class Parser {
     }
 
     /**
-     * Parses and creates a Todo task from command input.
+     * Checks whether a mark, unmark or delete command selects several tasks at once,
+     * either as a range such as {@code 1-500} or as {@code all}, {@code done} or {@code undone}.
      *
-     * @param input Full command string containing todo description.
-     * @return Todo task or null if invalid.
-     * @throws IllegalArgumentException if format is invalid.
+     * @param parts Array containing the command and its argument.
+     * @return True if the argument is a batch selection.
      */
-    public Todo parseTodoCommand(String input) {
-        if (input.length() <= TODO_COMMAND_LENGTH) {
-            throw new IllegalArgumentException("Invalid format! Use: todo <description>");
+    public boolean isBatchSelection(String[] parts) {
+        if (parts.length != 2) {
+            return false;
         }
-
-        String description = input.substring(TODO_COMMAND_LENGTH).trim();
-        if (description.isEmpty()) {
-            throw new IllegalArgumentException("Invalid format! Use: todo <description>");
+        String selection = parts[1];
+        if (selection.equalsIgnoreCase("all") || selection.equalsIgnoreCase("done")
+                || selection.equalsIgnoreCase("undone")) {
+            return true;
         }
+        int dash = selection.indexOf('-');
+        return dash > 0 && isDigits(selection, 0, dash) && isDigits(selection, dash + 1, selection.length());
+    }
 
-        return new Todo(description);
+    /**
+     * Checks whether a mark or unmark command picks one occurrence of a recurring task,
+     * as in {@code mark 2 /on 08/12/2025}.
+     *
+     * @param parts Array containing the command and its arguments.
+     * @return True if the command names a day with {@code /on}.
+     */
+    public boolean isOccurrenceSelection(String[] parts) {
+        return parts.length >= 3 && parts[2].equalsIgnoreCase("/on");
     }
 
     /**
-     * Parses and creates a Deadline task from command input.
+     * Parses the day of the occurrence a mark or unmark command picks.
      *
-     * @param input Full command string containing deadline description and due date.
-     * @return Deadline task.
+     * @param parts Array containing the command, the task number, {@code /on} and the date (dd/MM/yyyy).
+     * @param commandName Name of the command, for the error message.
+     * @return Epoch day of the occurrence.
      * @throws IllegalArgumentException if format is invalid.
      */
-    public Deadline parseDeadlineCommand(String input) {
-        if (!input.contains("/by")) {
-            throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
+    public int parseOccurrenceDay(String[] parts, String commandName) {
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid format! Use: " + commandName + " <number> /on <date>");
         }
+        return DateCodec.parseInputDate(parts[3]);
+    }
 
-        if (input.length() <= DEADLINE_COMMAND_LENGTH) {
-            throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
+    private static boolean isDigits(String text, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * Parses a range selection such as {@code 1-500}.
+     *
+     * @param selection Range of task numbers, both ends included.
+     * @param taskListSize Current size of the task list for validation.
+     * @return First and last index (0-based) of the range, in that order.
+     * @throws IllegalArgumentException if the range is reversed or outside the list.
+     */
+    public int[] parseTaskRange(String selection, int taskListSize) {
+        int dash = selection.indexOf('-');
+        try {
+            int first = Integer.parseInt(selection.substring(0, dash)) - 1;
+            int last = Integer.parseInt(selection.substring(dash + 1)) - 1;
+            if (first >= 0 && first <= last && last < taskListSize) {
+                return new int[] {first, last};
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid task range! Use numbers from 1 to " + taskListSize
+                + ", smallest first.");
+    }
 
-        String description = input.substring(DEADLINE_COMMAND_LENGTH).trim();
+    /**
+     * Parses and creates a Todo task from command input.
+     *
+     * @param line Tokenized command containing todo description.
+     * @return Todo task.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public Todo parseTodoCommand(CommandLine line) {
+        String description = line.text(1, line.getTokenCount());
         if (description.isEmpty()) {
-            throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
+            throw new IllegalArgumentException("Invalid format! Use: todo <description>");
         }
 
-        String[] deadlineParts = description.split("/by");
-        if (deadlineParts.length != 2) {
+        return new Todo(description);
+    }
+
+    /**
+     * Parses and creates a Deadline task from command input.
+     *
+     * @param line Tokenized command containing deadline description and due date.
+     * @return Deadline task.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public Deadline parseDeadlineCommand(CommandLine line) {
+        int byPosition = line.indexOf("/by", 0);
+        if (byPosition < 0 || line.indexOf("/by", byPosition) >= 0) {
             throw new IllegalArgumentException("Invalid format! Use: deadline <description> /by <date/time>");
         }
 
-        String desc = deadlineParts[0].trim();
-        String by = deadlineParts[1].trim();
+        String desc = line.text(1, byPosition);
+        String by = line.text(byPosition + 1, line.getTokenCount());
 
         if (desc.isEmpty()) {
             throw new IllegalArgumentException("Description cannot be empty!");
@@ -100,59 +166,221 @@ public class Parser {
     /**
      * Parses and creates an Event task from command input.
      *
-     * @param input Full command string containing event description, start, and end times.
+     * @param line Tokenized command containing event description, start, and end times.
      * @return Event task.
      * @throws IllegalArgumentException if format is invalid.
      */
-    public Event parseEventCommand(String input) {
-        if (!input.contains("/from") || !input.contains("/to")) {
+    public Event parseEventCommand(CommandLine line) {
+        int fromPosition = line.indexOf("/from", 0);
+        int toPosition = fromPosition < 0 ? -1 : line.indexOf("/to", fromPosition);
+        if (toPosition < 0) {
             throw new IllegalArgumentException(
                     "Invalid format! Use: event <description> /from <start> /to <end>");
         }
 
-        if (input.length() <= EVENT_COMMAND_LENGTH) {
+        String desc = line.text(1, fromPosition);
+        String from = line.text(fromPosition + 1, toPosition);
+        String to = line.text(toPosition + 1, line.getTokenCount());
+
+        if (desc.isEmpty() || from.isEmpty() || to.isEmpty()) {
             throw new IllegalArgumentException(
                     "Invalid format! Use: event <description> /from <date/time> /to <date/time>");
         }
 
-        String description = input.substring(EVENT_COMMAND_LENGTH).trim();
-        if (description.isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Invalid format! Use: event <description> /from <date/time> /to <date/time>");
+        return new Event(desc, from, to);
+    }
+
+    /**
+     * Parses and creates a Recurring task from command input.
+     * The interval is {@code day}, {@code week}, {@code <n> days} or {@code <n> weeks}.
+     *
+     * @param line Tokenized command containing description, interval, first date and optional end date.
+     * @return Recurring task.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public Recurring parseRecurCommand(CommandLine line) {
+        String usage = "Invalid format! Use: recur <description> /every <day|week|n days|n weeks> /from <date>"
+                + " [/until <date>]";
+        int everyPosition = line.indexOf("/every", 0);
+        int fromPosition = everyPosition < 0 ? -1 : line.indexOf("/from", everyPosition);
+        if (fromPosition < 0) {
+            throw new IllegalArgumentException(usage);
         }
+        int untilPosition = line.indexOf("/until", fromPosition);
+        int fromEnd = untilPosition < 0 ? line.getTokenCount() : untilPosition;
 
-        String[] eventParts = description.split("/from |/to ");
-        if (eventParts.length < EXPECTED_EVENT_PARTS_COUNT) {
-            throw new IllegalArgumentException(
-                    "Invalid format! Use: event <description> /from <date/time> /to <date/time>");
+        String desc = line.text(1, everyPosition);
+        String from = line.text(fromPosition + 1, fromEnd);
+        String until = untilPosition < 0 ? null : line.text(untilPosition + 1, line.getTokenCount());
+        if (desc.isEmpty() || from.isEmpty() || (until != null && until.isEmpty())) {
+            throw new IllegalArgumentException(usage);
         }
 
-        String desc = eventParts[0].trim();
-        String from = eventParts[1].trim();
-        String to = eventParts[2].trim();
+        return new Recurring(desc, from, parseIntervalDays(line, everyPosition + 1, fromPosition, usage), until);
+    }
 
-        if (desc.isEmpty() || from.isEmpty() || to.isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Invalid format! Use: event <description> /from <date/time> /to <date/time>");
+    private static int parseIntervalDays(CommandLine line, int first, int lastExclusive, String usage) {
+        int count = lastExclusive - first;
+        if (count < 1 || count > 2) {
+            throw new IllegalArgumentException(usage);
+        }
+        String unit = line.token(lastExclusive - 1).toLowerCase();
+        int multiplier = 1;
+        if (count == 2) {
+            String number = line.token(first);
+            if (!isDigits(number, 0, number.length()) || number.length() > 4) {
+                throw new IllegalArgumentException(usage);
+            }
+            multiplier = Integer.parseInt(number);
+        }
+        switch (unit) {
+        case "day":
+        case "days":
+            return multiplier;
+        case "week":
+        case "weeks":
+            return multiplier * 7;
+        default:
+            throw new IllegalArgumentException(usage);
         }
+    }
 
-        return new Event(desc, from, to);
+    /**
+     * Parses find command to extract keywords.
+     * Keywords separated by "/or" form alternatives; the keywords within one alternative must all match.
+     *
+     * @param parts Array containing the command and search keywords.
+     * @return Groups of keywords, one group per alternative.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public List<List<String>> parseFindCommand(String[] parts) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].equalsIgnoreCase("/or")) {
+                groups.add(group);
+                group = new ArrayList<>();
+            } else {
+                group.add(parts[i]);
+            }
+        }
+        groups.add(group);
+        for (List<String> keywords : groups) {
+            if (keywords.isEmpty()) {
+                throw new IllegalArgumentException("Invalid format! Use: find <keyword>... [/or <keyword>...]");
+            }
+        }
+        return groups;
     }
 
     /**
-     * Parses find command to extract keyword.
+     * Parses fuzzy find command to extract the keyword.
      *
-     * @param parts Array containing the command and search keyword.
+     * @param parts Array containing the command, the keyword and optionally the maximum number of edits.
      * @return Search keyword.
      * @throws IllegalArgumentException if format is invalid.
      */
-    public String parseFindCommand(String[] parts) {
-        if (parts.length < 2) {
-            throw new IllegalArgumentException("Invalid format! Use: find <keyword>");
+    public String parseFuzzyFindKeyword(String[] parts) {
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Invalid format! Use: find~ <keyword> [maxEdits]");
         }
         return parts[1];
     }
 
+    /**
+     * Parses fuzzy find command to extract how many typos to tolerate.
+     * Defaults to one edit for keywords of up to four characters and two edits for longer ones.
+     *
+     * @param parts Array containing the command, the keyword and optionally the maximum number of edits.
+     * @return Maximum number of edits.
+     * @throws IllegalArgumentException if the number of edits is not between 0 and 3.
+     */
+    public int parseFuzzyFindMaxEdits(String[] parts) {
+        if (parts.length < 3) {
+            return parts[1].length() <= 4 ? 1 : 2;
+        }
+        try {
+            int maxEdits = Integer.parseInt(parts[2]);
+            if (maxEdits >= 0 && maxEdits <= MAX_FUZZY_EDITS) {
+                return maxEdits;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException("maxEdits must be a number from 0 to " + MAX_FUZZY_EDITS + "!");
+    }
+
+    /**
+     * Parses due command to extract the range of days to list.
+     *
+     * @param parts Array containing the command, the first date and the last date (dd/MM/yyyy).
+     * @return Epoch days of the first and last date, in that order.
+     * @throws IllegalArgumentException if format is invalid or the range is reversed.
+     */
+    public int[] parseDueRange(String[] parts) {
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid format! Use: due <from date> <to date>");
+        }
+        int fromDay = DateCodec.parseInputDate(parts[1]);
+        int toDay = DateCodec.parseInputDate(parts[2]);
+        if (fromDay > toDay) {
+            throw new IllegalArgumentException("The from date must not be after the to date!");
+        }
+        return new int[] {fromDay, toDay};
+    }
+
+    /**
+     * Parses before command to extract the date.
+     *
+     * @param parts Array containing the command and the date (dd/MM/yyyy).
+     * @return Epoch day of the date.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public int parseBeforeDate(String[] parts) {
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid format! Use: before <date>");
+        }
+        return DateCodec.parseInputDate(parts[1]);
+    }
+
+    /**
+     * Parses on command to extract the day to look at.
+     *
+     * @param parts Array containing the command and the date (dd/MM/yyyy).
+     * @return Epoch day of the date.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public int parseOnDate(String[] parts) {
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid format! Use: on <date>");
+        }
+        return DateCodec.parseInputDate(parts[1]);
+    }
+
+    /**
+     * Parses list command to extract how many list-changing commands to look back.
+     *
+     * @param parts Array containing the command and optionally {@code @-<steps>}.
+     * @return Number of commands to look back, or 0 for the current list.
+     * @throws IllegalArgumentException if format is invalid.
+     */
+    public int parseListStepsBack(String[] parts) {
+        if (parts.length == 1) {
+            return 0;
+        }
+        if (parts.length == 2 && parts[1].startsWith("@-")) {
+            try {
+                int stepsBack = Integer.parseInt(parts[1].substring(2));
+                if (stepsBack >= 0) {
+                    return stepsBack;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Invalid format! Use: list or list @-<number of commands ago>");
+    }
+
     /**
      * Gets appropriate error message for task index validation errors.
      *
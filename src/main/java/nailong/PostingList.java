@@ -0,0 +1,144 @@
+package nailong;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of task ids, stored as a growable int array.
+ * New tasks get the largest id so far, so adding is usually an append.
+ */
+class PostingList {
+    private int[] ids = new int[4];
+    private int size;
+
+    /**
+     * Adds an id, keeping the list sorted.
+     *
+     * @param id Task id.
+     */
+    public void add(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            insertAt(-position - 1, id);
+            return;
+        }
+        insertAt(size, id);
+    }
+
+    /**
+     * Removes an id if it is present.
+     *
+     * @param id Task id.
+     */
+    public void remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the ids in ascending order.
+     *
+     * @return Sorted ids.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the given ids that are also in this list.
+     * Looks each id up instead of walking the whole list, so a few candidates can be
+     * checked against a very long list cheaply.
+     *
+     * @param candidates Sorted ids.
+     * @return Sorted ids present in both.
+     */
+    public int[] retain(int[] candidates) {
+        int[] result = new int[candidates.length];
+        int count = 0;
+        int from = 0;
+        for (int id : candidates) {
+            int position = Arrays.binarySearch(ids, from, size, id);
+            if (position >= 0) {
+                result[count++] = id;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the ids present in both sorted arrays.
+     *
+     * @param a Sorted ids.
+     * @param b Sorted ids.
+     * @return Sorted ids present in both.
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the ids present in either sorted array.
+     *
+     * @param a Sorted ids.
+     * @param b Sorted ids.
+     * @return Sorted ids present in at least one, without duplicates.
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[count++] = a[i++];
+            } else if (i == a.length || a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void insertAt(int position, int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+}
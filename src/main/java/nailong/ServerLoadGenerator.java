@@ -0,0 +1,167 @@
+package nailong;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens many concurrent connections to a {@link NailongServer} and reports how long commands take.
+ * Every client sends a mix of adds, searches and status changes one at a time and times each
+ * round trip; the percentiles are taken over all of them.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.ServerLoadGenerator [--port <port>] [--clients <n>]
+ * [--commands <per client>]}. Without a port an embedded server over a temporary data file is used.
+ */
+public class ServerLoadGenerator {
+    private static final int DEFAULT_CLIENTS = 1000;
+    private static final int DEFAULT_COMMANDS_PER_CLIENT = 20;
+
+    /**
+     * Runs the clients and prints latency percentiles and throughput.
+     *
+     * @param args Optional {@code --port}, {@code --clients} and {@code --commands}.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        int clients = DEFAULT_CLIENTS;
+        int commandsPerClient = DEFAULT_COMMANDS_PER_CLIENT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--port":
+                port = Integer.parseInt(args[++i]);
+                break;
+            case "--clients":
+                clients = Integer.parseInt(args[++i]);
+                break;
+            case "--commands":
+                commandsPerClient = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        NailongServer embedded = null;
+        Nailong nailong = null;
+        if (port < 0) {
+            Path dataFile = Files.createTempDirectory("nailong-load").resolve("Nailong.txt");
+            nailong = new Nailong(dataFile.toString(), new StorageOptions()
+                    .withWriteBehind(StorageOptions.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                            StorageOptions.DEFAULT_MAX_FLUSH_LATENCY_MILLIS));
+            nailong.getResponse("todo warm up");
+            embedded = new NailongServer(nailong, 0);
+            embedded.start();
+            port = embedded.getPort();
+        }
+
+        long[] latencies = run(port, clients, commandsPerClient);
+        report(latencies, clients);
+
+        if (embedded != null) {
+            embedded.close();
+            nailong.close();
+        }
+    }
+
+    private static long[] run(int port, int clients, int commandsPerClient) throws InterruptedException {
+        long[] latencies = new long[clients * commandsPerClient];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        ThreadFactory threads = NailongServer.connectionThreadFactory();
+        List<Thread> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = threads.newThread(() -> {
+                boolean isConnected = false;
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        Writer out = new BufferedWriter(
+                                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                    isConnected = true;
+                    connected.countDown();
+                    start.await();
+                    for (int i = 0; i < commandsPerClient; i++) {
+                        long sent = System.nanoTime();
+                        out.write(command(client, i));
+                        out.write('\n');
+                        out.flush();
+                        readResponse(in);
+                        latencies[client * commandsPerClient + i] = System.nanoTime() - sent;
+                    }
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                    if (!isConnected) {
+                        connected.countDown();
+                    }
+                }
+            });
+            running.add(thread);
+            thread.start();
+        }
+        connected.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        System.out.printf("%d clients x %d commands in %.2f s (%.0f commands/s), %d failed clients%n",
+                clients, commandsPerClient, elapsed / 1e9, latencies.length / (elapsed / 1e9), failures.get());
+        return latencies;
+    }
+
+    private static String command(int client, int i) {
+        switch (i % 5) {
+        case 0:
+            return "todo load test c" + client + "x" + i;
+        case 1:
+            return "find c" + client + "x" + (i - 1);
+        case 2:
+            return "mark 1";
+        case 3:
+            return "unmark 1";
+        default:
+            return "on 01/12/2099";
+        }
+    }
+
+    private static void readResponse(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(NailongServer.END_OF_RESPONSE)) {
+                return;
+            }
+        }
+        throw new IOException("Connection closed mid-response");
+    }
+
+    private static void report(long[] latencies, int clients) {
+        long[] sorted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+        if (sorted.length == 0) {
+            System.out.println("No command completed.");
+            return;
+        }
+        System.out.printf("latency at %d concurrent clients: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", clients,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+}
@@ -5,31 +5,177 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import nailong.task.Deadline;
 import nailong.task.Event;
+import nailong.task.Recurring;
 import nailong.task.Task;
 import nailong.task.Todo;
 
 class Storage {
     private final Path filePath;
+    private final StorageOptions options;
+    private final Journal journal;
+    private final Path compactingPath;
+    private final Path compactedPath;
+    private final Path snapshotTempPath;
+    private final Path backupPath;
+    private ExecutorService compactor;
+    private volatile Future<?> compaction;
+    private WriteBehindFlusher flusher;
+    private TaskList deferredSave;
+    private ConcurrentHashMap<String, String> descriptionPool;
+    private UndoLog undoLog;
 
     public Storage(String filePath) {
+        this(filePath, new StorageOptions());
+    }
+
+    /**
+     * Creates a storage backed by the given file, persisting changes as configured by the options.
+     *
+     * @param filePath The file path where tasks are saved and loaded from.
+     * @param options How changes should be persisted.
+     */
+    public Storage(String filePath, StorageOptions options) {
         this.filePath = Paths.get(filePath);
+        this.options = options;
+        Path journalPath = Journal.pathFor(this.filePath);
+        this.journal = options.isJournaled() ? new Journal(journalPath) : null;
+        this.compactingPath = Paths.get(journalPath + ".compacting");
+        this.compactedPath = Paths.get(journalPath + ".compacted");
+        this.snapshotTempPath = Paths.get(this.filePath + ".tmp");
+        this.backupPath = Paths.get(this.filePath + ".bak");
+    }
+
+    /**
+     * Starts following changes to the task list so that journal mode can record them.
+     * Has no effect when journal mode is off.
+     *
+     * @param taskList TaskList loaded from this storage.
+     */
+    public void watch(TaskList taskList) {
+        if (journal != null) {
+            taskList.addListener(journal);
+        }
+    }
+
+    /**
+     * Writes the given undo log along with the tasks, so that it only ever describes changes that
+     * are already in the storage file. The log should be deferred.
+     *
+     * @param undoLog Undo history of the task list saved here.
+     */
+    public void saveHistoryWith(UndoLog undoLog) {
+        this.undoLog = undoLog;
     }
 
     /**
      * Saves all tasks from the task list to the storage file.
      * Creates the necessary directories and file if they don't exist.
+     * In journal mode only the changes made since the last save are appended, and the
+     * journal is compacted into the storage file in the background once it grows too large.
+     * In write-behind mode this only marks the task list dirty and the write happens later
+     * on a background thread. With deferred saves nothing is written until {@link #flush()}.
      *
      * @param taskList TaskList containing tasks to be saved.
      */
     public void save(TaskList taskList) {
+        if (options.isDeferred()) {
+            synchronized (this) {
+                deferredSave = taskList;
+            }
+            return;
+        }
+        if (options.isWriteBehind()) {
+            if (flusher == null) {
+                flusher = new WriteBehindFlusher(() -> persist(taskList),
+                        options.getFlushIntervalMillis(), options.getMaxFlushLatencyMillis());
+            }
+            flusher.markDirty();
+            return;
+        }
+        persist(taskList);
+    }
+
+    /**
+     * Blocks until every change passed to {@link #save(TaskList)} so far is on disk and any
+     * compaction it started has been folded into the storage file.
+     */
+    public void flush() {
+        TaskList pending;
+        synchronized (this) {
+            pending = deferredSave;
+            deferredSave = null;
+        }
+        if (pending != null) {
+            persist(pending);
+        }
+        if (flusher != null) {
+            flusher.flush();
+        }
+        awaitCompaction();
+    }
+
+    private void awaitCompaction() {
+        Future<?> running = compaction;
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Failed to compact journal: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Writes the tasks to the storage file, or appends their changes to the journal.
+     *
+     * @return Whether the tasks were written; failures have already been reported.
+     */
+    private boolean persist(TaskList taskList) {
         createFolderAndFile();
+        if (undoLog != null) {
+            // Every record set aside here describes a change the tasks about to be written include
+            undoLog.markSaved();
+        }
+        boolean isSaved;
+        if (journal != null) {
+            isSaved = appendToJournal(taskList);
+        } else if (options.isWriteBehind() || options.isDeferred() || options.isBinaryFormat()) {
+            isSaved = writeSnapshotCopy(taskList);
+        } else {
+            isSaved = writeTextFile(taskList);
+        }
+        if (!isSaved || undoLog == null) {
+            return isSaved;
+        }
+        try {
+            undoLog.writeSaved();
+        } catch (IOException e) {
+            System.out.println("Error saving undo history: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private boolean writeTextFile(TaskList taskList) {
         try {
             File file = filePath.toFile();
             FileWriter fileWriter = new FileWriter(file);
@@ -39,9 +185,10 @@ class Storage {
                 bw.newLine();
             }
             bw.close();
-
+            return true;
         } catch (IOException e) {
             System.out.println("Failed to save task!");
+            return false;
         }
     }
 
@@ -54,9 +201,82 @@ class Storage {
      */
     public ArrayList<Task> load() {
         ArrayList<Task> tasks = new ArrayList<>();
-        if (!Files.exists(filePath)) {
-            createFolderAndFile();
-            return tasks;
+        if (options.isDescriptionDedup()) {
+            descriptionPool = new ConcurrentHashMap<>();
+        }
+        try {
+            if (journal != null) {
+                recoverCompaction();
+            }
+            if (!Files.exists(filePath)) {
+                createFolderAndFile();
+            } else {
+                readSnapshot(tasks);
+            }
+            if (journal != null) {
+                if (Files.exists(compactingPath)) {
+                    // Finish the interrupted compaction before newer records are applied on top
+                    Journal.replay(compactingPath, tasks, this::parseTask);
+                    writeCompactedSnapshot(renderSnapshot(tasks.size(), tasks::get));
+                }
+                Journal.replay(Journal.pathFor(filePath), tasks, this::parseTask);
+            }
+        } finally {
+            // The pool is only needed to spot repeats while loading; the tasks keep the shared strings
+            descriptionPool = null;
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the first string equal to the description seen during this load, if deduplication is on.
+     */
+    private String shareDescription(String description) {
+        if (descriptionPool == null) {
+            return description;
+        }
+        String shared = descriptionPool.putIfAbsent(description, description);
+        return shared == null ? description : shared;
+    }
+
+    private void readSnapshot(ArrayList<Task> tasks) {
+        try {
+            if (BinaryTaskFormat.isBinary(filePath)) {
+                tasks.addAll(BinaryTaskFormat.read(filePath, this::shareDescription));
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+            return;
+        }
+
+        readTextSnapshot(tasks);
+        if (options.isBinaryFormat() && !tasks.isEmpty()) {
+            migrateToBinary(tasks);
+        }
+    }
+
+    /**
+     * Rewrites a pipe-format data file in the binary format, keeping the original as a backup.
+     */
+    private void migrateToBinary(ArrayList<Task> tasks) {
+        try {
+            Files.copy(filePath, backupPath, StandardCopyOption.REPLACE_EXISTING);
+            writeAtomically(BinaryTaskFormat.encode(tasks.size(), tasks::get));
+        } catch (IOException e) {
+            System.out.println("Error converting file to binary format: " + e.getMessage());
+        }
+    }
+
+    private void readTextSnapshot(ArrayList<Task> tasks) {
+        try {
+            if (Files.size(filePath) >= options.getParallelLoadThresholdBytes()) {
+                tasks.addAll(ParallelTaskFileLoader.load(filePath, this::parseTask));
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+            return;
         }
 
         try (BufferedReader reader = Files.newBufferedReader(filePath)) {
@@ -77,7 +297,138 @@ class Storage {
         } catch (IOException e) {
             System.out.println("Error reading file: " + e.getMessage());
         }
-        return tasks;
+    }
+
+    /**
+     * Writes the whole task list in one go, replacing the file atomically. The tasks are rendered while
+     * holding the task list's read lock so that a write from a background thread never mixes states from
+     * before and after a concurrent change.
+     */
+    private boolean writeSnapshotCopy(TaskList taskList) {
+        byte[] bytes = taskList.withReadLock(() -> renderSnapshot(taskList.getTaskListSize(), taskList::getTask));
+        try {
+            writeAtomically(bytes);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Failed to save task!");
+            return false;
+        }
+    }
+
+    private void writeAtomically(byte[] bytes) throws IOException {
+        Files.write(snapshotTempPath, bytes);
+        Files.move(snapshotTempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean appendToJournal(TaskList taskList) {
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            System.out.println("Failed to save task!");
+            return false;
+        }
+        boolean isCompacting = compaction != null && !compaction.isDone();
+        if (journal.getSizeInBytes() >= options.getCompactionThresholdBytes() && !isCompacting) {
+            startCompaction(taskList);
+        }
+        return true;
+    }
+
+    /**
+     * Folds the journal back into the storage file.
+     * The current tasks are rendered on the caller thread, then the journal is moved aside and a
+     * background thread writes the new snapshot. If the app stops half way, {@link #recoverCompaction()}
+     * finishes or discards the attempt on the next load, so no record is lost or applied twice.
+     */
+    private void startCompaction(TaskList taskList) {
+        byte[] bytes = taskList.withReadLock(() -> {
+            try {
+                // Changes made since the size check must end up in the journal being folded in
+                journal.flush();
+                byte[] rendered = renderSnapshot(taskList.getTaskListSize(), taskList::getTask);
+                journal.rotateTo(compactingPath);
+                return rendered;
+            } catch (IOException e) {
+                System.out.println("Failed to compact journal: " + e.getMessage());
+                return null;
+            }
+        });
+        if (bytes == null) {
+            return;
+        }
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "nailong-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compaction = compactor.submit(() -> writeCompactedSnapshot(bytes));
+    }
+
+    private byte[] renderSnapshot(int size, IntFunction<Task> taskAt) {
+        if (options.isBinaryFormat()) {
+            return BinaryTaskFormat.encode(size, taskAt);
+        }
+        StringBuilder snapshot = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            snapshot.append(taskAt.apply(i).formatToStore()).append(System.lineSeparator());
+        }
+        return snapshot.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeCompactedSnapshot(byte[] bytes) {
+        try {
+            Files.write(snapshotTempPath, bytes);
+            // From here on the temporary snapshot is complete and replaces the moved-aside journal
+            Files.move(compactingPath, compactedPath, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(snapshotTempPath, filePath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(compactedPath);
+        } catch (IOException e) {
+            System.out.println("Failed to compact journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Completes or rolls back a compaction that was interrupted before it finished.
+     */
+    private void recoverCompaction() {
+        try {
+            if (Files.exists(compactedPath)) {
+                // The new snapshot was fully written; only the final rename may be missing
+                if (Files.exists(snapshotTempPath)) {
+                    Files.move(snapshotTempPath, filePath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+                Files.delete(compactedPath);
+            } else {
+                // The snapshot may be half written; the moved-aside journal is replayed instead
+                Files.deleteIfExists(snapshotTempPath);
+            }
+        } catch (IOException e) {
+            System.out.println("Error recovering journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes any pending changes, waits for a running compaction to finish and stops the
+     * background threads.
+     */
+    public void close() {
+        flush();
+        if (flusher != null) {
+            flusher.close();
+        }
+        if (compactor == null) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -97,18 +448,30 @@ class Storage {
 
     /**
      * Parses a line from the storage file and creates the corresponding Task object.
-     * Supports Todo (T), Deadline (D), and Event (E) task types.
+     * Supports Todo (T), Deadline (D), Event (E) and Recurring (R) task types.
      *
      * @param line Line from the storage file to parse.
      * @return Parsed Task object, or null if the line is empty or invalid.
      */
     public Task parseTask(String line) {
+        return parseTask(line, System.out::println);
+    }
+
+    /**
+     * Parses a line from the storage file, passing any warning to the given consumer instead of
+     * printing it, so that loaders working on several lines at once can report warnings in order.
+     *
+     * @param line Line from the storage file to parse.
+     * @param warnings Receives warnings about lines that are skipped.
+     * @return Parsed Task object, or null if the line has an unknown task type.
+     */
+    Task parseTask(String line, Consumer<String> warnings) {
         assert line != null && !line.isEmpty() : "Line to parse should not be null or empty";
 
         String [] parts = line.split(" \\| ");
         String taskType = parts[0];
         String status = parts[1];
-        String description = parts[2];
+        String description = shareDescription(parts[2]);
 
         Task task = null;
 
@@ -119,17 +482,21 @@ class Storage {
 
         case "D":
             String by = parts[3];
-            task = new Deadline(description, by);
+            task = Deadline.restore(description, by);
             break;
 
         case "E":
             String from = parts[3];
             String to = parts[4];
-            task = new Event(description, from, to);
+            task = Event.restore(description, from, to);
+            break;
+
+        case "R":
+            task = Recurring.restore(description, parts[3], parts[4], parts[5], parts[6]);
             break;
 
         default:
-            System.out.println("Warning: Unknown task type '" + taskType + "' in line: " + line);
+            warnings.accept("Warning: Unknown task type '" + taskType + "' in line: " + line);
             return null;
         }
 
@@ -0,0 +1,182 @@
+package nailong;
+
+/**
+ * Tuning knobs for how Nailong persists its task list.
+ * The defaults reproduce the original behaviour of rewriting the whole data file after every change.
+ */
+public class StorageOptions {
+    /** Journal size after which it is folded back into the snapshot file. */
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+    /** Quiet period after the last change before a write-behind flush. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    /** Longest a change may stay unsaved in write-behind mode while changes keep arriving. */
+    public static final long DEFAULT_MAX_FLUSH_LATENCY_MILLIS = 2000;
+    /** Text data files at least this large are loaded in parallel chunks. */
+    public static final long DEFAULT_PARALLEL_LOAD_THRESHOLD_BYTES = 4 * 1024 * 1024;
+
+    private boolean isJournaled = false;
+    private long compactionThresholdBytes = DEFAULT_COMPACTION_THRESHOLD_BYTES;
+    private boolean isBinaryFormat = false;
+    private long parallelLoadThresholdBytes = DEFAULT_PARALLEL_LOAD_THRESHOLD_BYTES;
+    private boolean isWriteBehind = false;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private long maxFlushLatencyMillis = DEFAULT_MAX_FLUSH_LATENCY_MILLIS;
+    private boolean isColumnar = false;
+    private boolean isDescriptionDedup = false;
+    private int historyDepth = CommandHistory.DEFAULT_HISTORY_DEPTH;
+    private boolean isDeferred = false;
+
+    /**
+     * Enables journal mode, where every change is appended to a log next to the data file
+     * instead of rewriting the file.
+     *
+     * @param compactionThresholdBytes Journal size at which it is compacted into the data file.
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withJournal(long compactionThresholdBytes) {
+        if (compactionThresholdBytes <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive!");
+        }
+        this.isJournaled = true;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        return this;
+    }
+
+    /**
+     * Stores tasks in the compact binary format instead of pipe-separated text.
+     * An existing text data file is converted on first load, keeping a {@code .bak} copy of it.
+     *
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withBinaryFormat() {
+        this.isBinaryFormat = true;
+        return this;
+    }
+
+    /**
+     * Sets the size from which a text data file is memory-mapped and parsed in parallel chunks
+     * instead of line by line on a single thread.
+     *
+     * @param thresholdBytes Smallest file size loaded in parallel.
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withParallelLoadThreshold(long thresholdBytes) {
+        if (thresholdBytes < 0) {
+            throw new IllegalArgumentException("Parallel load threshold cannot be negative!");
+        }
+        this.parallelLoadThresholdBytes = thresholdBytes;
+        return this;
+    }
+
+    /**
+     * Enables write-behind mode, where saving only marks the task list dirty and a background
+     * thread writes bursts of changes out together.
+     *
+     * @param flushIntervalMillis Quiet period after the last change before writing.
+     * @param maxFlushLatencyMillis Longest a change may stay unsaved while changes keep arriving.
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withWriteBehind(long flushIntervalMillis, long maxFlushLatencyMillis) {
+        if (flushIntervalMillis < 0 || maxFlushLatencyMillis < flushIntervalMillis) {
+            throw new IllegalArgumentException("Max flush latency must be at least the flush interval!");
+        }
+        this.isWriteBehind = true;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxFlushLatencyMillis = maxFlushLatencyMillis;
+        return this;
+    }
+
+    /**
+     * Holds the loaded tasks in columns (a byte arena for descriptions, int arrays for dates)
+     * instead of one object per task, trading slower edits in the middle of the list for a much
+     * smaller heap.
+     *
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withColumnarTasks() {
+        this.isColumnar = true;
+        return this;
+    }
+
+    /**
+     * Makes tasks loaded with the same description share one string, which saves memory when
+     * many tasks repeat a description such as a daily "standup".
+     *
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withDescriptionDedup() {
+        this.isDescriptionDedup = true;
+        return this;
+    }
+
+    /**
+     * Sets how many commands can be undone in a row.
+     *
+     * @param historyDepth Number of commands kept in the undo history.
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withHistoryDepth(int historyDepth) {
+        if (historyDepth <= 0) {
+            throw new IllegalArgumentException("History depth must be positive!");
+        }
+        this.historyDepth = historyDepth;
+        return this;
+    }
+
+    /**
+     * Defers every write until it is asked for, so that scripted runs of many commands write the
+     * task list and the undo history once per checkpoint instead of once per command.
+     * Changes are only written by {@link Nailong#flush()}, the {@code bye} command or
+     * {@link Nailong#close()}.
+     *
+     * @return This options object, for chaining.
+     */
+    public StorageOptions withDeferredSaves() {
+        this.isDeferred = true;
+        return this;
+    }
+
+    public boolean isJournaled() {
+        return isJournaled;
+    }
+
+    public long getCompactionThresholdBytes() {
+        return compactionThresholdBytes;
+    }
+
+    public boolean isBinaryFormat() {
+        return isBinaryFormat;
+    }
+
+    public long getParallelLoadThresholdBytes() {
+        return parallelLoadThresholdBytes;
+    }
+
+    public boolean isWriteBehind() {
+        return isWriteBehind;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+        return maxFlushLatencyMillis;
+    }
+
+    public boolean isColumnar() {
+        return isColumnar;
+    }
+
+    public boolean isDescriptionDedup() {
+        return isDescriptionDedup;
+    }
+
+    public int getHistoryDepth() {
+        return historyDepth;
+    }
+
+    public boolean isDeferred() {
+        return isDeferred;
+    }
+}
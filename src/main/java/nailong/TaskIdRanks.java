@@ -0,0 +1,101 @@
+package nailong;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which task ids are in use and answers "how many live ids are smaller than this one".
+ * Because ids increase in list order, that count is the task's position in the list, so an id
+ * can be turned back into a task in O(log n) without keeping a map from ids to tasks.
+ * Backed by a Fenwick tree over the id space.
+ */
+class TaskIdRanks {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BitSet live = new BitSet();
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Marks an id as in use.
+     *
+     * @param id Task id.
+     */
+    public void add(int id) {
+        if (live.get(id)) {
+            return;
+        }
+        if (id >= tree.length - 1) {
+            grow(id);
+        }
+        live.set(id);
+        update(id, 1);
+    }
+
+    /**
+     * Marks an id as no longer in use.
+     *
+     * @param id Task id.
+     */
+    public void remove(int id) {
+        if (!live.get(id)) {
+            return;
+        }
+        live.clear(id);
+        update(id, -1);
+    }
+
+    /**
+     * Returns whether an id is in use.
+     *
+     * @param id Task id.
+     * @return true if a task in the list has this id.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && live.get(id);
+    }
+
+    /**
+     * Returns the number of live ids smaller than the given id.
+     *
+     * @param id Task id.
+     * @return Position (0-based) the task with this id has in the list.
+     */
+    public int rank(int id) {
+        int count = 0;
+        for (int i = Math.min(id, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Forgets every id.
+     */
+    public void clear() {
+        live.clear();
+        tree = new int[INITIAL_CAPACITY + 1];
+    }
+
+    private void update(int id, int delta) {
+        for (int i = id + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void grow(int id) {
+        int capacity = tree.length - 1;
+        while (capacity <= id) {
+            capacity *= 2;
+        }
+        // Rebuild in linear time: each node passes its total on to its parent
+        tree = new int[capacity + 1];
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            tree[i + 1] = 1;
+        }
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -1,15 +1,56 @@
 package nailong;
 
 import java.util.ArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import nailong.task.Recurring;
 import nailong.task.Task;
 
+/**
+ * Holds the tasks in display order, backed by a {@link ChunkedTaskSequence} so that inserting or
+ * deleting anywhere in a long list stays cheap.
+ * The list is guarded by a read-write lock, so several front-ends can share it: reads such as
+ * list and find run side by side, while each change, together with its listeners, runs alone.
+ * Commands made of several steps (check the index, change the task, record the undo entry, save)
+ * should run inside {@link #withWriteLock(Supplier)} so no other change can slip in between.
+ */
 class TaskList {
-    private final ArrayList<Task> tasks;
+    private final TaskSequence tasks;
+    private final ArrayList<TaskListListener> listeners = new ArrayList<>();
+    private final TaskIdRanks ranks = new TaskIdRanks();
+    private int nextId;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public TaskList(ArrayList<Task> tasks) {
+        this(new ChunkedTaskSequence(tasks));
+    }
+
+    /**
+     * Creates a task list over the given storage, for example a {@link ColumnarTaskSequence}
+     * when millions of tasks have to fit in a small heap.
+     *
+     * @param tasks Tasks in display order.
+     */
+    TaskList(TaskSequence tasks) {
         this.tasks = tasks;
+        renumber();
+    }
+
+    /**
+     * Registers a listener to be notified of every change to this list.
+     *
+     * @param listener Listener to register.
+     */
+    public void addListener(TaskListListener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -18,7 +59,15 @@ class TaskList {
      * @param task Task to be added to the list.
      */
     public void addTask(Task task) {
-        tasks.add(task);
+        lock.writeLock().lock();
+        try {
+            insert(tasks.size(), task, nextId);
+            for (TaskListListener listener : listeners) {
+                listener.onTaskAdded(tasks.size() - 1, task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -29,7 +78,17 @@ class TaskList {
      * @throws IndexOutOfBoundsException If the index is out of range.
      */
     public Task removeTask(int index) {
-        return tasks.remove(index);
+        lock.writeLock().lock();
+        try {
+            Task removed = tasks.remove(index);
+            ranks.remove(removed.getId());
+            for (TaskListListener listener : listeners) {
+                listener.onTaskRemoved(index, removed);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -40,9 +99,100 @@ class TaskList {
      * @throws IndexOutOfBoundsException If the index is out of range.
      */
     public Task getTask(int index) {
-        return tasks.get(index);
+        lock.readLock().lock();
+        try {
+            return tasks.get(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the task with the specified id.
+     *
+     * @param id Id of the task, as returned by {@link Task#getId()}.
+     * @return The task, or null if no task in the list has this id.
+     */
+    public Task getTaskById(int id) {
+        lock.readLock().lock();
+        try {
+            if (!ranks.contains(id)) {
+                return null;
+            }
+            return tasks.get(ranks.rank(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index Index of the task to mark (0-based).
+     * @return The marked task.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public Task markTask(int index) {
+        lock.writeLock().lock();
+        try {
+            tasks.setDone(index, true);
+            Task task = tasks.get(index);
+            for (TaskListListener listener : listeners) {
+                listener.onTaskStatusChanged(index, task);
+            }
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index Index of the task to unmark (0-based).
+     * @return The unmarked task.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public Task unmarkTask(int index) {
+        lock.writeLock().lock();
+        try {
+            tasks.setDone(index, false);
+            Task task = tasks.get(index);
+            for (TaskListListener listener : listeners) {
+                listener.onTaskStatusChanged(index, task);
+            }
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
+    /**
+     * Marks one occurrence of the recurring task at the specified index as done or not done.
+     *
+     * @param index Index of the recurring task (0-based).
+     * @param day Epoch day of the occurrence.
+     * @param isDone New completion status of the occurrence.
+     * @return The occurrence with its new status.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     * @throws IllegalArgumentException If the task is not recurring or does not occur on the day.
+     */
+    public Task setOccurrenceDone(int index, int day, boolean isDone) {
+        lock.writeLock().lock();
+        try {
+            if (!(tasks.get(index) instanceof Recurring)) {
+                throw new IllegalArgumentException("Only recurring tasks can be marked for a single day!");
+            }
+            tasks.setOccurrenceDone(index, day, isDone);
+            Task task = tasks.get(index);
+            for (TaskListListener listener : listeners) {
+                listener.onOccurrenceStatusChanged(index, task, day, isDone);
+            }
+            return ((Recurring) task).occurrenceOn(day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
     /**
      * Returns the number of tasks in the task list.
@@ -50,27 +200,125 @@ class TaskList {
      * @return Size of the task list.
      */
     public int getTaskListSize() {
-        return tasks.size();
+        lock.readLock().lock();
+        try {
+            return tasks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Adds a task at the specified index.
+     * A task that is put back where it was removed from keeps its old id, and a task inserted
+     * into a gap left by earlier deletions takes the free id after its predecessor. Inserting
+     * anywhere else in the middle of the list renumbers every task so that ids stay in list order.
      */
     public void addTaskAtIndex(Task task, int index) {
-        if (index >= 0 && index <= tasks.size()) {
-            tasks.add(index, task);
-        } else {
-            tasks.add(task); // Add at end if index is invalid
+        lock.writeLock().lock();
+        try {
+            if (index >= 0 && index <= tasks.size()) {
+                boolean needsRenumber = false;
+                int idAfterPrevious = index == 0 ? 0 : tasks.get(index - 1).getId() + 1;
+                if (fitsAt(task.getId(), index)) {
+                    insert(index, task, task.getId());
+                } else if (index == tasks.size()) {
+                    insert(index, task, nextId);
+                } else if (fitsAt(idAfterPrevious, index)) {
+                    insert(index, task, idAfterPrevious);
+                } else {
+                    needsRenumber = true;
+                    tasks.add(index, task);
+                }
+                if (needsRenumber) {
+                    renumber();
+                    task.setId(index);
+                }
+                for (TaskListListener listener : listeners) {
+                    listener.onTaskAdded(index, task);
+                }
+                if (needsRenumber) {
+                    for (TaskListListener listener : listeners) {
+                        listener.onTasksRenumbered();
+                    }
+                }
+            } else {
+                addTask(task); // Add at end if index is invalid
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a multi-step change while holding the write lock, so that it appears to other threads
+     * as a single step.
+     *
+     * @param action Change to run.
+     * @return Whatever the action returns.
+     */
+    public <T> T withWriteLock(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Runs several reads while holding the read lock, so that they all see the same list.
+     *
+     * @param action Reads to run.
+     * @return Whatever the action returns.
+     */
+    public <T> T withReadLock(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean fitsAt(int id, int index) {
+        if (id < 0 || ranks.contains(id)) {
+            return false;
+        }
+        boolean afterPrevious = index == 0 || tasks.get(index - 1).getId() < id;
+        boolean beforeNext = index == tasks.size() || tasks.get(index).getId() > id;
+        return afterPrevious && beforeNext;
+    }
+
+    private void insert(int index, Task task, int id) {
+        task.setId(id);
+        tasks.add(index, task);
+        ranks.add(id);
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    private void renumber() {
+        ranks.clear();
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.setId(i, i);
+            ranks.add(i);
+        }
+        nextId = tasks.size();
+    }
+
     public void printCompletedTasks() {
-        String completed = tasks.stream()
-                .filter(Task::isDone)
-                .map(Task::toString)
-                .collect(Collectors.joining("\n"));
+        lock.readLock().lock();
+        try {
+            String completed = IntStream.range(0, tasks.size())
+                    .mapToObj(tasks::get)
+                    .filter(Task::isDone)
+                    .map(Task::toString)
+                    .collect(Collectors.joining("\n"));
 
-        System.out.println("Here are your completed tasks:");
-        System.out.println(completed.isEmpty() ? "None yet!" : completed);
+            System.out.println("Here are your completed tasks:");
+            System.out.println(completed.isEmpty() ? "None yet!" : completed);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 }
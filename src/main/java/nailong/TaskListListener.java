@@ -0,0 +1,53 @@
+package nailong;
+
+import nailong.task.Task;
+
+/**
+ * Receives notifications whenever the contents of a {@link TaskList} change.
+ * Lets components such as the storage journal follow every add, delete, mark
+ * and unmark without the command handlers having to report each one.
+ */
+interface TaskListListener {
+
+    /**
+     * Called after a task has been inserted into the list.
+     *
+     * @param index Position (0-based) the task now occupies.
+     * @param task The task that was added.
+     */
+    void onTaskAdded(int index, Task task);
+
+    /**
+     * Called after a task has been removed from the list.
+     *
+     * @param index Position (0-based) the task occupied before removal.
+     * @param task The task that was removed.
+     */
+    void onTaskRemoved(int index, Task task);
+
+    /**
+     * Called after the completion status of a task has changed.
+     *
+     * @param index Position (0-based) of the task.
+     * @param task The task whose status changed.
+     */
+    void onTaskStatusChanged(int index, Task task);
+
+    /**
+     * Called after one occurrence of a recurring task has been marked or unmarked.
+     *
+     * @param index Position (0-based) of the recurring task.
+     * @param task The recurring task, with the new status of the occurrence.
+     * @param day Epoch day of the occurrence.
+     * @param isDone Whether the occurrence itself is now marked done.
+     */
+    default void onOccurrenceStatusChanged(int index, Task task, int day, boolean isDone) {
+    }
+
+    /**
+     * Called after every task in the list has been given a new id.
+     * Listeners that remember tasks by id should rebuild their state.
+     */
+    default void onTasksRenumbered() {
+    }
+}
@@ -0,0 +1,83 @@
+package nailong;
+
+import nailong.task.Task;
+
+/**
+ * Positional storage behind a {@link TaskList}.
+ * Indices are 0-based; the task list turns 1-based display numbers into them.
+ * A sequence may hand out a new {@link Task} object on every {@link #get(int)}, so changes to a
+ * stored task are made through {@link #setDone(int, boolean)}, {@link #setId(int, int)} and
+ * {@link #setOccurrenceDone(int, int, boolean)}.
+ */
+interface TaskSequence {
+
+    /**
+     * Returns the number of tasks stored.
+     *
+     * @return Number of tasks.
+     */
+    int size();
+
+    /**
+     * Returns the task at a position.
+     *
+     * @param index Position (0-based).
+     * @return Task at the position.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    Task get(int index);
+
+    /**
+     * Appends a task.
+     *
+     * @param task Task to append.
+     */
+    void add(Task task);
+
+    /**
+     * Inserts a task, shifting later tasks back by one position.
+     *
+     * @param index Position (0-based) the task should occupy; may equal the size.
+     * @param task Task to insert.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    void add(int index, Task task);
+
+    /**
+     * Removes a task, shifting later tasks forward by one position.
+     *
+     * @param index Position (0-based) of the task to remove.
+     * @return The removed task.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    Task remove(int index);
+
+    /**
+     * Sets whether the task at a position is done.
+     *
+     * @param index Position (0-based).
+     * @param isDone New completion status.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    void setDone(int index, boolean isDone);
+
+    /**
+     * Sets the id of the task at a position.
+     *
+     * @param index Position (0-based).
+     * @param id New id.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    void setId(int index, int id);
+
+    /**
+     * Sets whether one occurrence of the recurring task at a position is done.
+     *
+     * @param index Position (0-based) of a {@link nailong.task.Recurring} task.
+     * @param day Epoch day of the occurrence.
+     * @param isDone New completion status of the occurrence.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     * @throws IllegalArgumentException If the task does not occur on the day.
+     */
+    void setOccurrenceDone(int index, int day, boolean isDone);
+}
@@ -0,0 +1,138 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+/**
+ * Times positional edits, in-order scans and random reads on {@link ChunkedTaskSequence}, with the
+ * plain {@link ArrayList} that used to back {@link TaskList} as the baseline.
+ * Each measurement is repeated for a number of rounds so the later rounds show warmed-up code.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.TaskSequenceBenchmark [--tasks <n>] [--rounds <n>]}.
+ */
+public class TaskSequenceBenchmark {
+    private static final int DEFAULT_TASKS = 1_000_000;
+    private static final int DEFAULT_ROUNDS = 3;
+    private static final int EDITS_PER_ROUND = 20_000;
+    private static final int READS_PER_ROUND = 1_000_000;
+
+    private static long sink;
+
+    /**
+     * Runs the measurements and prints the timings of each sequence for each round.
+     *
+     * @param args Optional {@code --tasks} and {@code --rounds}.
+     */
+    public static void main(String[] args) {
+        int taskCount = DEFAULT_TASKS;
+        int rounds = DEFAULT_ROUNDS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--tasks":
+                taskCount = Integer.parseInt(args[++i]);
+                break;
+            case "--rounds":
+                rounds = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        for (int round = 1; round <= rounds; round++) {
+            measure(round, "ArrayList", new ArrayListSequence(tasks));
+            measure(round, "ChunkedTaskSequence", new ChunkedTaskSequence(tasks));
+        }
+        System.out.println("(checksum " + (sink & 1) + ")");
+    }
+
+    private static void measure(int round, String name, TaskSequence sequence) {
+        // Each edit deletes at the head and re-inserts there, then moves a task to the middle
+        long start = System.nanoTime();
+        for (int i = 0; i < EDITS_PER_ROUND; i++) {
+            sequence.add(0, sequence.remove(0));
+            sequence.add(sequence.size() / 2, sequence.remove(i));
+        }
+        double editNanos = (System.nanoTime() - start) / (4.0 * EDITS_PER_ROUND);
+
+        start = System.nanoTime();
+        for (int i = 0; i < sequence.size(); i++) {
+            sink += sequence.get(i).getId();
+        }
+        double scanMillis = (System.nanoTime() - start) / 1e6;
+
+        Random random = new Random(round);
+        start = System.nanoTime();
+        for (int i = 0; i < READS_PER_ROUND; i++) {
+            sink += sequence.get(random.nextInt(sequence.size())).getId();
+        }
+        double readNanos = (System.nanoTime() - start) / (double) READS_PER_ROUND;
+
+        System.out.printf("round %d %-19s: edit %.0f ns/op, full scan %.1f ms, random get %.0f ns/op%n",
+                round, name, editNanos, scanMillis, readNanos);
+    }
+
+    /**
+     * The array list TaskList was backed by before {@link ChunkedTaskSequence}.
+     */
+    private static class ArrayListSequence implements TaskSequence {
+        private final ArrayList<Task> tasks;
+
+        private ArrayListSequence(List<Task> tasks) {
+            this.tasks = new ArrayList<>(tasks);
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public Task get(int index) {
+            return tasks.get(index);
+        }
+
+        @Override
+        public void add(Task task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public void add(int index, Task task) {
+            tasks.add(index, task);
+        }
+
+        @Override
+        public Task remove(int index) {
+            return tasks.remove(index);
+        }
+
+        @Override
+        public void setDone(int index, boolean isDone) {
+            if (isDone) {
+                tasks.get(index).markDone();
+            } else {
+                tasks.get(index).markUndone();
+            }
+        }
+
+        @Override
+        public void setId(int index, int id) {
+            tasks.get(index).setId(id);
+        }
+
+        @Override
+        public void setOccurrenceDone(int index, int day, boolean isDone) {
+            ((Recurring) tasks.get(index)).setOccurrenceDone(day, isDone);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package nailong;
+
+import java.util.ArrayList;
+
+import nailong.task.Task;
+
+/**
+ * Keeps the task list as it was after each of the last few commands, so that past versions can be
+ * shown without replaying any commands.
+ * <p>
+ * Every version is an immutable balanced tree ordered by list position. A change copies only the
+ * nodes on the path to the changed position and shares the rest of the tree with the previous
+ * version, so a command costs O(log n) time and memory however long the list is. Each node keeps
+ * whether its task was done at that point, since tasks themselves are marked in place.
+ */
+class TaskVersions implements TaskListListener {
+    private final Node[] versions;
+    private int newest;
+    private int count;
+    private Node current;
+
+    /**
+     * Creates versions for the given task list, starting from its current contents.
+     *
+     * @param tasks Task list to follow.
+     * @param depth Number of past versions to keep.
+     * @throws IllegalArgumentException If the depth is not positive.
+     */
+    public TaskVersions(TaskList tasks, int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Version depth must be positive!");
+        }
+        this.versions = new Node[depth + 1]; // The current version plus the ones before it
+        tasks.withWriteLock(() -> {
+            current = build(tasks, 0, tasks.getTaskListSize());
+            tasks.addListener(this);
+            return null;
+        });
+        versions[0] = current;
+        count = 1;
+    }
+
+    @Override
+    public void onTaskAdded(int index, Task task) {
+        current = insert(current, index, task, task.isDone());
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        current = remove(current, index);
+    }
+
+    @Override
+    public void onTaskStatusChanged(int index, Task task) {
+        current = setDone(current, index, task.isDone());
+    }
+
+    /**
+     * Ends the current command, keeping the list as it is now as the newest version.
+     * Does nothing if the command did not change the list.
+     */
+    public void record() {
+        if (current == versions[newest]) {
+            return;
+        }
+        newest = (newest + 1) % versions.length;
+        versions[newest] = current;
+        count = Math.min(count + 1, versions.length);
+    }
+
+    /**
+     * Returns how many commands back versions are available for.
+     */
+    public int getAvailableSteps() {
+        return count - 1;
+    }
+
+    /**
+     * Returns the tasks as they were the given number of commands ago, formatted for display.
+     *
+     * @param stepsBack Number of list-changing commands to go back.
+     * @return Display text of each task, in list order.
+     * @throws IllegalArgumentException If that version is no longer kept.
+     */
+    public ArrayList<String> describe(int stepsBack) {
+        if (stepsBack < 0 || stepsBack >= count) {
+            throw new IllegalArgumentException("Nailong only remembers the list as it was up to "
+                    + getAvailableSteps() + " commands ago!");
+        }
+        Node version = versions[(newest - stepsBack + versions.length) % versions.length];
+        ArrayList<String> lines = new ArrayList<>(size(version));
+        appendInOrder(version, lines);
+        return lines;
+    }
+
+    private static void appendInOrder(Node node, ArrayList<String> lines) {
+        while (node != null) {
+            appendInOrder(node.left, lines);
+            lines.add(node.describe());
+            node = node.right;
+        }
+    }
+
+    private static Node build(TaskList tasks, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Task task = tasks.getTask(middle);
+        return new Node(task, task.isDone(), build(tasks, from, middle), build(tasks, middle + 1, to));
+    }
+
+    private static Node insert(Node node, int index, Task task, boolean isDone) {
+        if (node == null) {
+            return new Node(task, isDone, null, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node, insert(node.left, index, task, isDone), node.right);
+        }
+        return balance(node, node.left, insert(node.right, index - leftSize - 1, task, isDone));
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(first, node.left, removeFirst(node.right));
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node, removeFirst(node.left), node.right);
+    }
+
+    private static Node setDone(Node node, int index, boolean isDone) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node(node.task, node.isDone, setDone(node.left, index, isDone), node.right);
+        }
+        if (index > leftSize) {
+            return new Node(node.task, node.isDone, node.left, setDone(node.right, index - leftSize - 1, isDone));
+        }
+        return new Node(node.task, isDone, node.left, node.right);
+    }
+
+    /**
+     * Creates a node holding the entry of the given node over new children, rotating if the
+     * children's heights differ by more than one.
+     */
+    private static Node balance(Node entry, Node left, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left, left.left, left.right);
+            }
+            return rotateRight(entry, left, right);
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right, right.left, right.right);
+            }
+            return rotateLeft(entry, left, right);
+        }
+        return new Node(entry.task, entry.isDone, left, right);
+    }
+
+    private static Node rotateRight(Node entry, Node left, Node right) {
+        Node newRight = new Node(entry.task, entry.isDone, left.right, right);
+        return new Node(left.task, left.isDone, left.left, newRight);
+    }
+
+    private static Node rotateLeft(Node entry, Node left, Node right) {
+        Node newLeft = new Node(entry.task, entry.isDone, left, right.left);
+        return new Node(right.task, right.isDone, newLeft, right.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Immutable tree node holding one task and whether it was done in the versions sharing it.
+     */
+    private static final class Node {
+        private final Task task;
+        private final boolean isDone;
+        private final byte height;
+        private final int size;
+        private final Node left;
+        private final Node right;
+
+        private Node(Task task, boolean isDone, Node left, Node right) {
+            this.task = task;
+            this.isDone = isDone;
+            this.left = left;
+            this.right = right;
+            this.height = (byte) (Math.max(height(left), height(right)) + 1);
+            this.size = size(left) + size(right) + 1;
+        }
+
+        /**
+         * Returns the display text of the task with the status it had in this version.
+         * Every task type is shown as a three-character tag followed by the status box.
+         */
+        String describe() {
+            String text = task.toString();
+            if (task.isDone() == isDone) {
+                return text;
+            }
+            return text.substring(0, 4) + (isDone ? "X" : " ") + text.substring(5);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+/**
+ * Measures what {@link TaskVersions} costs for a large list: heap per task for the initial tree,
+ * heap and time per recorded version, and the time to render an old version for {@code list @-N}.
+ * Random inserts, deletes and marks are fed to the versions as the task list would report them,
+ * so the timings leave out the list's own work. Heap figures are differences in used heap after
+ * garbage collection.
+ * <p>
+ * Usage: {@code java -cp <classes> nailong.TaskVersionsBenchmark [--tasks <n>] [--commands <n>]}.
+ */
+public class TaskVersionsBenchmark {
+    private static final int DEFAULT_TASKS = 1_000_000;
+    private static final int DEFAULT_COMMANDS = 100_000;
+    private static final int GC_PASSES = 4;
+
+    /**
+     * Runs the workload and prints the memory and time figures.
+     *
+     * @param args Optional {@code --tasks} and {@code --commands}.
+     */
+    public static void main(String[] args) {
+        int taskCount = DEFAULT_TASKS;
+        int commands = DEFAULT_COMMANDS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--tasks":
+                taskCount = Integer.parseInt(args[++i]);
+                break;
+            case "--commands":
+                commands = Integer.parseInt(args[++i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ArrayList<Task> loaded = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            loaded.add(new Todo("task " + i));
+        }
+        TaskList tasks = new TaskList(loaded);
+        loaded = null;
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        TaskVersions versions = new TaskVersions(tasks, commands);
+        long buildNanos = System.nanoTime() - start;
+        long heapWithTree = usedHeap();
+        System.out.printf("initial tree: %.1f B/task, built in %.0f ms%n",
+                (heapWithTree - heapBefore) / (double) taskCount, buildNanos / 1e6);
+
+        Random random = new Random(1);
+        Todo inserted = new Todo("inserted");
+        Todo done = new Todo("done");
+        done.markDone();
+        int size = taskCount;
+        start = System.nanoTime();
+        for (int i = 0; i < commands; i++) {
+            switch (random.nextInt(3)) {
+            case 0:
+                versions.onTaskAdded(random.nextInt(size + 1), inserted);
+                size++;
+                break;
+            case 1:
+                versions.onTaskRemoved(random.nextInt(size), inserted);
+                size--;
+                break;
+            default:
+                versions.onTaskStatusChanged(random.nextInt(size), done);
+                break;
+            }
+            versions.record();
+        }
+        long commandNanos = System.nanoTime() - start;
+        long heapWithVersions = usedHeap();
+        System.out.printf("per command: %.0f B/version, %.2f us%n",
+                (heapWithVersions - heapWithTree) / (double) commands, commandNanos / 1e3 / commands);
+
+        int stepsBack = versions.getAvailableSteps();
+        start = System.nanoTime();
+        int lines = versions.describe(stepsBack).size();
+        System.out.printf("list @-%d: %d tasks rendered in %.0f ms%n", stepsBack, lines,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_PASSES; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
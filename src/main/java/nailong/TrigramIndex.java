@@ -0,0 +1,176 @@
+package nailong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import nailong.task.Task;
+
+/**
+ * Index from every three-character substring of each task to the ids of the tasks containing it.
+ * A keyword of three or more characters can only occur in tasks that contain all of its trigrams,
+ * so find narrows the list down to those candidates and runs its contains check on them alone.
+ * Shorter keywords, and keywords touching the "[T][X]" markers, fall back to checking every task.
+ */
+class TrigramIndex implements TaskListListener {
+    private static final int GRAM_LENGTH = 3;
+
+    private final TaskList tasks;
+    private final HashMap<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Indexes the tasks already in the list and starts following its changes.
+     *
+     * @param tasks Task list to index.
+     */
+    public TrigramIndex(TaskList tasks) {
+        this.tasks = tasks;
+        tasks.withWriteLock(() -> {
+            rebuild();
+            tasks.addListener(this);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the tasks matching a query, in list order.
+     * A task matches a group if its text contains every keyword of the group, and matches
+     * the query if it matches at least one group.
+     *
+     * @param groups Groups of keywords, combined with OR between groups and AND within one.
+     * @return Matching tasks.
+     */
+    public ArrayList<Task> search(List<List<String>> groups) {
+        return tasks.withReadLock(() -> {
+            int[] matches = new int[0];
+            for (List<String> group : groups) {
+                matches = PostingList.union(matches, searchAll(group));
+            }
+            ArrayList<Task> result = new ArrayList<>(matches.length);
+            for (int id : matches) {
+                result.add(tasks.getTaskById(id));
+            }
+            return result;
+        });
+    }
+
+    private int[] searchAll(List<String> keywords) {
+        int[] candidates = null;
+        for (String keyword : keywords) {
+            if (isIndexable(keyword)) {
+                int[] ids = candidatesFor(keyword);
+                candidates = candidates == null ? ids : PostingList.intersect(candidates, ids);
+            }
+        }
+        if (candidates == null) {
+            return scan(keywords);
+        }
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            if (containsAll(tasks.getTaskById(id), keywords)) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int[] scan(List<String> keywords) {
+        int[] result = new int[tasks.getTaskListSize()];
+        int count = 0;
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            Task task = tasks.getTask(i);
+            if (containsAll(task, keywords)) {
+                result[count++] = task.getId();
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean containsAll(Task task, List<String> keywords) {
+        String text = task.toString();
+        for (String keyword : keywords) {
+            if (!text.contains(keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] candidatesFor(String keyword) {
+        ArrayList<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= keyword.length(); i++) {
+            PostingList list = postings.get(gramAt(keyword, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the shortest posting list so every intersection stays small
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private static boolean isIndexable(String keyword) {
+        return keyword.length() >= GRAM_LENGTH && keyword.indexOf('[') < 0 && keyword.indexOf(']') < 0;
+    }
+
+    @Override
+    public void onTaskAdded(int index, Task task) {
+        String text = indexedText(task);
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            postings.computeIfAbsent(gramAt(text, i), key -> new PostingList()).add(task.getId());
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        String text = indexedText(task);
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            Long gram = gramAt(text, i);
+            PostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(task.getId());
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onTaskStatusChanged(int index, Task task) {
+        // Only the marker changes, and the marker is not indexed
+    }
+
+    @Override
+    public void onTasksRenumbered() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        postings.clear();
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            onTaskAdded(i, tasks.getTask(i));
+        }
+    }
+
+    /**
+     * Returns the part of the rendered task that is indexed: everything after the "[X]" or "[ ]"
+     * status marker, including the space that follows the marker. This part never changes.
+     */
+    private static String indexedText(Task task) {
+        String text = task.toString();
+        int marker = text.indexOf(task.getStatusIcon() + "] ");
+        return marker < 0 ? text : text.substring(marker + 2);
+    }
+
+    private static long gramAt(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -47,6 +47,25 @@ public class Ui {
         return sb.toString();
     }
 
+    /**
+     * Displays the task list as it was some commands ago.
+     *
+     * @param stepsBack Number of list-changing commands looked back.
+     * @param pastTasks Display text of each task in that version of the list.
+     */
+    public String showPastTaskList(int stepsBack, ArrayList<String> pastTasks) {
+        StringBuilder sb = new StringBuilder();
+        if (!pastTasks.isEmpty()) {
+            sb.append("Here’s your task list from " + stepsBack + " command(s) ago 🕰️:\n");
+            for (int i = 0; i < pastTasks.size(); i++) {
+                sb.append(" " + (i + 1) + ". " + pastTasks.get(i) + "\n");
+            }
+        } else {
+            sb.append("Your list was empty " + stepsBack + " command(s) ago~ 🌸");
+        }
+        return sb.toString();
+    }
+
     /**
      * Helper method to format task count message.
      * Eliminates code duplication between showTaskAdded and showTaskDeleted.
@@ -96,13 +115,47 @@ public class Ui {
         return sb.toString();
     }
 
+    /**
+     * Displays confirmation message when several tasks are deleted at once.
+     *
+     * @param deletedCount Number of tasks that were deleted.
+     * @param remainingTasks Number of tasks remaining after deletion.
+     */
+    public String showTasksDeleted(int deletedCount, int remainingTasks) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Aww~ Nailong poofed " + deletedCount + " task(s) away...").append("\n");
+        if (remainingTasks == 0) {
+            sb.append(formatTaskCount(remainingTasks));
+        } else {
+            sb.append("Now only " + formatTaskCount(remainingTasks));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Displays confirmation message when several tasks are marked or unmarked at once.
+     *
+     * @param changedCount Number of tasks whose status changed.
+     * @param isDone Whether the tasks were marked as done.
+     */
+    public String showTasksStatusChanged(int changedCount, boolean isDone) {
+        if (changedCount == 0) {
+            return "Nothing to change~ \uD83C\uDF38 Those tasks were already "
+                    + (isDone ? "done!" : "not done!");
+        }
+        return isDone
+                ? "Teehee~ ✨ " + changedCount + " task(s) completed !\nNailong is super proud of you! \uD83C\uDF1F"
+                : "Okie~ \uD83C\uDF31 Nailong marked " + changedCount + " task(s) as not done yet.";
+    }
+
     /**
      * Displays error message for unknown commands and shows available commands.
      */
     public String showUnknownCommand() {
         return "Eep~ \uD83C\uDF19\nNailong didn’t quite get that command… \n"
                 + "Try these instead: "
-                + "list, todo, deadline, event, mark, unmark, delete, undo, bye";
+                + "list, todo, deadline, event, recur, mark, unmark, delete, find, find~, due, before, on, undo, redo,"
+                + " bye";
     }
 
     /**
@@ -156,4 +209,58 @@ public class Ui {
         }
         return sb.toString();
     }
+
+    /**
+     * Displays the deadlines, events and recurring task occurrences found by a date query.
+     *
+     * @param dueTasks ArrayList of tasks in the requested dates, earliest first.
+     */
+    public String showDueTasks(ArrayList<Task> dueTasks) {
+        StringBuilder sb = new StringBuilder();
+        if (!dueTasks.isEmpty()) {
+            sb.append("Tick-tock~ ⏰\nHere's what's coming up then: ").append("\n");
+            for (int i = 0; i < dueTasks.size(); i++) {
+                sb.append((i + 1) + ". " + dueTasks.get(i) + "\n");
+            }
+        } else {
+            sb.append("Nothing due then~ \uD83C\uDF19 Nailong says enjoy the free time! ");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Displays the events taking place on a day, and the occurrences of recurring tasks on it.
+     *
+     * @param events ArrayList of events whose span includes the day, then occurrences on the day.
+     */
+    public String showEventsOn(ArrayList<Task> events) {
+        StringBuilder sb = new StringBuilder();
+        if (!events.isEmpty()) {
+            sb.append("Ooh~ \uD83C\uDF89\nHere's what's on that day: ").append("\n");
+            for (int i = 0; i < events.size(); i++) {
+                sb.append((i + 1) + ". " + events.get(i) + "\n");
+            }
+        } else {
+            sb.append("Nothing on that day~ \uD83C\uDF19 Nailong says enjoy the free time! ");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Displays the events that overlap a newly added event, if any.
+     *
+     * @param conflicts ArrayList of events sharing at least one day with the new event.
+     * @return Warning to append to the confirmation message, or an empty string if there are no conflicts.
+     */
+    public String showEventConflicts(ArrayList<Task> conflicts) {
+        if (conflicts.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("\nHeads up~ ⚠ This overlaps with:");
+        for (Task conflict : conflicts) {
+            sb.append("\n").append(conflict);
+        }
+        return sb.toString();
+    }
 }
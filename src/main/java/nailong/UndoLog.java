@@ -0,0 +1,313 @@
+package nailong;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+import nailong.task.Task;
+
+/**
+ * Append-only record of the undo history kept next to the data file, so that undo and redo
+ * still work after a restart.
+ * <p>
+ * Record format, one per line:
+ * <ul>
+ *   <li>{@code A|<index>|<stored task>} - task added at index</li>
+ *   <li>{@code D|<index>|<stored task>} - task deleted from index</li>
+ *   <li>{@code M|<index>} / {@code U|<index>} - task at index marked / unmarked</li>
+ *   <li>{@code O|<index>|<epoch day>|<1 or 0>} - occurrence of the recurring task at index marked / unmarked</li>
+ *   <li>{@code B|<count>} - batch command made of the next count records</li>
+ *   <li>{@code <} / {@code >} - the latest command was undone / redone</li>
+ * </ul>
+ * The file is only read back when the history is first needed, and rewritten to hold just the
+ * commands still in the history once it grows past a few times the history depth.
+ * <p>
+ * A deferred log is written by the {@link Storage} it is attached to: each save first takes the
+ * records appended so far and writes them only after the tasks, so after a crash the log may miss
+ * the last changes but never describes changes the data file does not have.
+ */
+class UndoLog {
+    static final char ADD = 'A';
+    static final char DELETE = 'D';
+    static final char MARK = 'M';
+    static final char UNMARK = 'U';
+    static final char OCCURRENCE = 'O';
+    static final char BATCH = 'B';
+    static final char UNDO = '<';
+    static final char REDO = '>';
+    static final char SEPARATOR = '|';
+
+    private final Path logPath;
+    private final Path tempPath;
+    private final Function<String, Task> parser;
+    private final boolean isDeferred;
+    /** Records appended since the last save of the data file started. */
+    private final StringBuilder pending = new StringBuilder();
+    private boolean isPendingRewrite;
+    /** Records covered by a save of the data file, waiting for that save to finish. */
+    private final StringBuilder saved = new StringBuilder();
+    private boolean isSavedRewrite;
+    private int recordCount = -1; // Not counted until the file is first appended to or read
+    private CommandHistory.Command[] pendingBatch;
+    private int pendingBatchSize;
+
+    /**
+     * Creates an undo log stored at the given path.
+     *
+     * @param logPath Path of the log file.
+     * @param parser Turns a stored task line back into a task.
+     * @param isDeferred Whether appended records wait in memory until the data file is saved, or {@link #flush()}.
+     */
+    public UndoLog(Path logPath, Function<String, Task> parser, boolean isDeferred) {
+        this.logPath = logPath;
+        this.tempPath = Paths.get(logPath + ".tmp");
+        this.parser = parser;
+        this.isDeferred = isDeferred;
+    }
+
+    /**
+     * Returns the path of the undo log kept alongside the given data file.
+     *
+     * @param dataFile Path of the snapshot data file.
+     * @return Path of its undo log.
+     */
+    public static Path pathFor(Path dataFile) {
+        return Paths.get(dataFile.toString() + ".undo");
+    }
+
+    /**
+     * Builds the record for a command that stores a task.
+     */
+    static String record(char type, int index, Task task) {
+        return type + String.valueOf(SEPARATOR) + index + SEPARATOR + task.formatToStore();
+    }
+
+    /**
+     * Builds the record for a command that only refers to a position.
+     */
+    static String record(char type, int index) {
+        return type + String.valueOf(SEPARATOR) + index;
+    }
+
+    /**
+     * Appends one record to the log file, or keeps it for the next flush if the log is deferred.
+     *
+     * @param record Record to append, without a trailing line break.
+     * @throws IOException If the log cannot be written.
+     */
+    public synchronized void append(String record) throws IOException {
+        countRecords();
+        pending.append(record).append('\n');
+        recordCount += countLines(record) + 1;
+        if (!isDeferred) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes every record appended so far to the log file.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        markSaved();
+        writeSaved();
+    }
+
+    /**
+     * Sets aside the records appended so far, as a save of the data file is about to capture the
+     * changes they describe. Must be called before the tasks are read for the save.
+     */
+    public synchronized void markSaved() {
+        if (isPendingRewrite) {
+            saved.setLength(0);
+            isSavedRewrite = true;
+            isPendingRewrite = false;
+        }
+        saved.append(pending);
+        pending.setLength(0);
+    }
+
+    /**
+     * Writes the records set aside by {@link #markSaved()}, once the data file holds their changes.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    public synchronized void writeSaved() throws IOException {
+        if (isSavedRewrite) {
+            Files.writeString(tempPath, saved, StandardCharsets.UTF_8);
+            Files.move(tempPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else if (saved.length() > 0) {
+            Files.write(logPath, saved.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        saved.setLength(0);
+        isSavedRewrite = false;
+    }
+
+    /**
+     * Returns the number of records in the log, including those not written yet.
+     */
+    public synchronized int getRecordCount() {
+        countRecords();
+        return recordCount;
+    }
+
+    /**
+     * Replaces the log with the given records. A deferred log replaces the file with the next save.
+     *
+     * @param records Records to keep, each followed by a line break.
+     * @throws IOException If the log cannot be written.
+     */
+    public synchronized void rewrite(String records) throws IOException {
+        pending.setLength(0);
+        pending.append(records);
+        isPendingRewrite = true;
+        recordCount = countLines(records);
+        if (!isDeferred) {
+            flush();
+        }
+    }
+
+    /**
+     * Re-applies the recorded history to an empty command history.
+     * Corrupted records are skipped with a warning, the same way corrupted journal records are.
+     *
+     * @param history History to rebuild.
+     */
+    public synchronized void replay(CommandHistory history) {
+        // Records not written yet are read from memory, so replaying never writes them early
+        StringBuilder records = new StringBuilder();
+        try {
+            if (!isPendingRewrite && !isSavedRewrite && Files.exists(logPath)) {
+                records.append(Files.readString(logPath, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading undo history: " + e.getMessage());
+            return;
+        }
+        if (!isPendingRewrite) {
+            records.append(saved);
+        }
+        records.append(pending);
+        try (BufferedReader reader = new BufferedReader(new StringReader(records.toString()))) {
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    apply(line, history);
+                } catch (Exception e) {
+                    System.out.println("Warning: Corrupted undo history entry at line " + lineNumber + ": " + line);
+                    System.out.println("Error: " + e.getMessage());
+                }
+                lineNumber++;
+            }
+            recordCount = lineNumber - 1;
+            pendingBatch = null;
+        } catch (IOException e) {
+            System.out.println("Error reading undo history: " + e.getMessage());
+        }
+    }
+
+    private void apply(String line, CommandHistory history) {
+        if (line.length() == 1 && line.charAt(0) == UNDO) {
+            history.stepBack();
+            return;
+        }
+        if (line.length() == 1 && line.charAt(0) == REDO) {
+            history.stepForward();
+            return;
+        }
+        if (line.length() < 3 || line.charAt(1) != SEPARATOR) {
+            throw new IllegalArgumentException("Unreadable undo history record");
+        }
+        int indexEnd = line.indexOf(SEPARATOR, 2);
+        int index = Integer.parseInt(line.substring(2, indexEnd < 0 ? line.length() : indexEnd));
+
+        CommandHistory.Command command;
+        switch (line.charAt(0)) {
+        case ADD:
+            command = new CommandHistory.AddCommand(index, parseTask(line, indexEnd));
+            break;
+        case DELETE:
+            command = new CommandHistory.DeleteCommand(parseTask(line, indexEnd), index);
+            break;
+        case MARK:
+            command = new CommandHistory.MarkCommand(index);
+            break;
+        case UNMARK:
+            command = new CommandHistory.UnmarkCommand(index);
+            break;
+        case OCCURRENCE:
+            String[] fields = line.substring(indexEnd + 1).split("\\|");
+            command = new CommandHistory.OccurrenceCommand(index, Integer.parseInt(fields[0]), fields[1].equals("1"));
+            break;
+        case BATCH:
+            // The count is the size of the batch; its records follow on the next lines
+            pendingBatch = new CommandHistory.Command[index];
+            pendingBatchSize = 0;
+            return;
+        default:
+            throw new IllegalArgumentException("Unknown undo history record type '" + line.charAt(0) + "'");
+        }
+
+        if (pendingBatch == null) {
+            history.push(command);
+            return;
+        }
+        pendingBatch[pendingBatchSize++] = command;
+        if (pendingBatchSize == pendingBatch.length) {
+            history.push(new CommandHistory.BatchCommand(pendingBatch));
+            pendingBatch = null;
+        }
+    }
+
+    private Task parseTask(String line, int indexEnd) {
+        Task task = indexEnd < 0 ? null : parser.apply(line.substring(indexEnd + 1));
+        if (task == null) {
+            throw new IllegalArgumentException("Missing task in undo history record");
+        }
+        return task;
+    }
+
+    private static int countLines(String records) {
+        int count = 0;
+        for (int i = 0; i < records.length(); i++) {
+            if (records.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void countRecords() {
+        if (recordCount >= 0) {
+            return;
+        }
+        int count = 0;
+        if (Files.exists(logPath)) {
+            try (InputStream in = Files.newInputStream(logPath)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            count++;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error reading undo history: " + e.getMessage());
+            }
+        }
+        recordCount = count;
+    }
+}
@@ -0,0 +1,185 @@
+package nailong;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs persistence on a dedicated thread so that saving never blocks the caller.
+ * Callers only mark the data dirty; bursts of changes are coalesced and written with a single flush
+ * once no new change has arrived for the flush interval, or once the oldest unsaved change has
+ * waited for the maximum latency, whichever comes first.
+ * A failed flush leaves its changes pending, and they are tried again after the next flush interval.
+ */
+class WriteBehindFlusher {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final BooleanSupplier flushAction;
+    private final long flushIntervalNanos;
+    private final long maxLatencyNanos;
+    private final Thread thread;
+    private final Thread shutdownHook;
+    private final Object lock = new Object();
+
+    private long changeCount = 0;
+    private long flushedChangeCount = 0;
+    private long firstUnflushedChange = -1;
+    private long lastChange;
+    private boolean isFlushRequested = false;
+    private boolean isClosed = false;
+    private int flushCount = 0;
+    private int failedFlushCount = 0;
+
+    /**
+     * Creates and starts a flusher.
+     *
+     * @param flushAction Writes the current state to disk and returns whether it succeeded;
+     *     always called from the flusher thread.
+     * @param flushIntervalMillis Quiet period after the last change before flushing.
+     * @param maxLatencyMillis Longest time a change may stay unsaved while changes keep arriving.
+     */
+    public WriteBehindFlusher(BooleanSupplier flushAction, long flushIntervalMillis, long maxLatencyMillis) {
+        this.flushAction = flushAction;
+        this.flushIntervalNanos = flushIntervalMillis * NANOS_PER_MILLI;
+        this.maxLatencyNanos = maxLatencyMillis * NANOS_PER_MILLI;
+        this.thread = new Thread(this::run, "nailong-write-behind");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        this.shutdownHook = new Thread(this::flush, "nailong-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Records that the data has changed and needs to be written eventually.
+     */
+    public void markDirty() {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (firstUnflushedChange < 0) {
+                firstUnflushedChange = now;
+            }
+            lastChange = now;
+            changeCount++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until every change marked so far has been written, or until a write fails.
+     */
+    public void flush() {
+        synchronized (lock) {
+            long target = changeCount;
+            if (flushedChangeCount >= target) {
+                return;
+            }
+            int failuresBefore = failedFlushCount;
+            isFlushRequested = true;
+            lock.notifyAll();
+            while (flushedChangeCount < target && failedFlushCount == failuresBefore && thread.isAlive()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes any pending changes and stops the flusher thread.
+     */
+    public void close() {
+        flush();
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join();
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down and the hook has run or is running
+        }
+    }
+
+    /**
+     * Returns how many times the data has actually been written.
+     */
+    public int getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long flushedUpTo;
+            synchronized (lock) {
+                if (!awaitFlushDue()) {
+                    return;
+                }
+                flushedUpTo = changeCount;
+                firstUnflushedChange = -1;
+                isFlushRequested = false;
+            }
+
+            boolean isSaved;
+            try {
+                isSaved = flushAction.getAsBoolean();
+            } catch (RuntimeException e) {
+                System.out.println("Failed to save task!");
+                isSaved = false;
+            }
+
+            synchronized (lock) {
+                if (isSaved) {
+                    flushedChangeCount = flushedUpTo;
+                    flushCount++;
+                } else {
+                    failedFlushCount++;
+                    if (isClosed) {
+                        lock.notifyAll();
+                        return;
+                    }
+                    // Keeps the changes pending and waits a full interval before trying again
+                    long now = System.nanoTime();
+                    if (firstUnflushedChange < 0) {
+                        firstUnflushedChange = now;
+                    }
+                    lastChange = now;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits while holding the lock until a flush is due.
+     *
+     * @return false if the flusher was closed with nothing left to write.
+     */
+    private boolean awaitFlushDue() {
+        try {
+            while (firstUnflushedChange < 0) {
+                if (isClosed) {
+                    return false;
+                }
+                lock.wait();
+            }
+            while (!isFlushRequested && !isClosed) {
+                long now = System.nanoTime();
+                long deadline = Math.min(lastChange + flushIntervalNanos, firstUnflushedChange + maxLatencyNanos);
+                if (now - deadline >= 0) {
+                    break;
+                }
+                long waitNanos = deadline - now;
+                lock.wait(waitNanos / NANOS_PER_MILLI, (int) (waitNanos % NANOS_PER_MILLI));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package nailong.task;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared date parsing and formatting for tasks and storage.
+ * Dates are handled as epoch days so that the common path allocates nothing: user input in
+ * d/M/yyyy form is parsed by hand instead of through a regex and a fresh formatter, rendered
+ * MMM dd yyyy strings are kept in a small LRU cache, and today's date is read from the clock
+ * once per command instead of once per date.
+ */
+public final class DateCodec {
+    /** Format dates are displayed and stored in, e.g. "Dec 25 2025". */
+    public static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    private static final int RENDER_CACHE_SIZE = 256;
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    private static final int DAYS_FROM_YEAR_0_TO_1970 = 719_468;
+
+    private static final Map<Integer, String> renderCache =
+            new LinkedHashMap<>(RENDER_CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                    return size() > RENDER_CACHE_SIZE;
+                }
+            };
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile boolean isTodayKnown = false;
+    private static volatile int today;
+
+    private DateCodec() {
+    }
+
+    /**
+     * Finds the first d/M/yyyy date in the input, the way the pattern {@code \d{1,2}/\d{1,2}/\d{4}}
+     * would, and returns it as an epoch day.
+     *
+     * @param input Text containing a date, e.g. "25/12/2025".
+     * @return Epoch day of the date.
+     * @throws IllegalArgumentException if the input is blank, has no date in it, or the date doesn't exist.
+     */
+    public static int parseInputDate(String input) {
+        if (input == null || isBlank(input)) {
+            throw new IllegalArgumentException("Date cannot be empty");
+        }
+
+        int length = input.length();
+        for (int start = 0; start < length; start++) {
+            for (int dayDigits = 2; dayDigits >= 1; dayDigits--) {
+                int monthStart = start + dayDigits + 1;
+                if (!isNumberThenSlash(input, start, dayDigits)) {
+                    continue;
+                }
+                for (int monthDigits = 2; monthDigits >= 1; monthDigits--) {
+                    int yearStart = monthStart + monthDigits + 1;
+                    if (isNumberThenSlash(input, monthStart, monthDigits) && isDigits(input, yearStart, 4)) {
+                        return toEpochDay(readNumber(input, yearStart, 4), readNumber(input, monthStart, monthDigits),
+                                readNumber(input, start, dayDigits));
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid date format! Please use dd/MM/yyyy! (e.g 25/12/2025)");
+    }
+
+    /**
+     * Parses a date stored in MMM dd yyyy format.
+     *
+     * @param storedDate Date string as written by {@link #format(int)}.
+     * @return Epoch day of the date.
+     * @throws IllegalArgumentException if the string is not a stored date.
+     */
+    public static int parseStoredDate(String storedDate) {
+        try {
+            return (int) LocalDate.parse(storedDate, DISPLAY_FORMAT).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid stored date: " + storedDate);
+        }
+    }
+
+    /**
+     * Renders an epoch day in MMM dd yyyy format, reusing recently rendered strings.
+     *
+     * @param epochDay Date to render.
+     * @return Rendered date, e.g. "Dec 25 2025".
+     */
+    public static String format(int epochDay) {
+        synchronized (renderCache) {
+            String rendered = renderCache.get(epochDay);
+            if (rendered == null) {
+                rendered = LocalDate.ofEpochDay(epochDay).format(DISPLAY_FORMAT);
+                renderCache.put(epochDay, rendered);
+            }
+            return rendered;
+        }
+    }
+
+    /**
+     * Returns today's date as an epoch day, as of the last {@link #refreshToday()}.
+     *
+     * @return Today's epoch day.
+     */
+    public static int today() {
+        if (!isTodayKnown) {
+            refreshToday();
+        }
+        return today;
+    }
+
+    /**
+     * Reads the clock again. Called once at the start of every command.
+     */
+    public static void refreshToday() {
+        today = (int) LocalDate.now(clock).toEpochDay();
+        isTodayKnown = true;
+    }
+
+    /**
+     * Replaces the clock used to decide what today is, e.g. to pin the date in tests.
+     *
+     * @param newClock Clock to read today's date from.
+     */
+    public static void setClock(Clock newClock) {
+        clock = newClock;
+        refreshToday();
+    }
+
+    /**
+     * Converts a calendar date to an epoch day without creating a {@link LocalDate}.
+     *
+     * @throws IllegalArgumentException if the date doesn't exist.
+     */
+    static int toEpochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date! Date does not exist!");
+        }
+        // Days-from-civil: count from 1 March so that the leap day falls at the end of the year
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(marchYear, 400);
+        int yearOfEra = marchYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_0_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    private static boolean isNumberThenSlash(String text, int start, int digits) {
+        return isDigits(text, start, digits) && start + digits < text.length() && text.charAt(start + digits) == '/';
+    }
+
+    private static boolean isDigits(String text, int start, int count) {
+        if (start + count > text.length()) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readNumber(String text, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
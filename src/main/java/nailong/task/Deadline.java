@@ -1,12 +1,14 @@
 package nailong.task;
 
+import java.time.LocalDate;
+
 /**
  * Represents a task with a deadline.
  * A <code>Deadline</code> object corresponds to a task that must be completed by a specific date/time.
+ * The date is kept as an epoch day and only rendered to text when the task is displayed or stored.
  */
 public class Deadline extends Task {
-    protected String by;
-    protected String reformatDeadline;
+    protected final int byDay;
 
     /**
      * Constructs a new Deadline task with the specified description and deadline.
@@ -17,8 +19,54 @@ public class Deadline extends Task {
      */
     public Deadline(String description, String by) {
         super(description);
-        this.by = by;
-        this.reformatDeadline = super.reformatDate(by);
+        this.byDay = (int) super.validateAndParseDate(by).toEpochDay();
+    }
+
+    private Deadline(String description, int byDay) {
+        super(description);
+        this.byDay = byDay;
+    }
+
+    /**
+     * Rebuilds a deadline from its stored form, skipping the validation done for user input.
+     * The date is parsed once to reject corrupted data, but dates that have since passed are accepted.
+     *
+     * @param description Description of the deadline task.
+     * @param storedBy Deadline in MMM dd yyyy format, as written by {@link #formatToStore()}.
+     * @return The restored deadline.
+     * @throws IllegalArgumentException if the stored date cannot be parsed.
+     */
+    public static Deadline restore(String description, String storedBy) {
+        return new Deadline(description, DateCodec.parseStoredDate(storedBy));
+    }
+
+    /**
+     * Rebuilds a deadline from an already validated date, skipping all input validation.
+     *
+     * @param description Description of the deadline task.
+     * @param by Deadline date.
+     * @return The restored deadline.
+     */
+    public static Deadline restore(String description, LocalDate by) {
+        return new Deadline(description, (int) by.toEpochDay());
+    }
+
+    /**
+     * Returns the due date of this deadline.
+     *
+     * @return Due date.
+     */
+    public LocalDate getByDate() {
+        return LocalDate.ofEpochDay(byDay);
+    }
+
+    /**
+     * Returns the due date as an epoch day, which is cheap to compare and sort by.
+     *
+     * @return Days since 1970-01-01 of the due date.
+     */
+    public int getByDay() {
+        return byDay;
     }
 
     /**
@@ -30,11 +78,11 @@ public class Deadline extends Task {
     @Override
     public String formatToStore() {
         String status = isDone ? "1" : "0";
-        return "D | " + status + " | " + this.description + " | " + this.reformatDeadline;
+        return "D | " + status + " | " + this.description + " | " + DateCodec.format(byDay);
     }
 
     @Override
     public String toString() {
-        return "[D]" + super.toString() + " (by: " + reformatDeadline + ")";
+        return "[D]" + super.toString() + " (by: " + DateCodec.format(byDay) + ")";
     }
 }
@@ -4,13 +4,12 @@ import java.time.LocalDate;
 /**
  * Represents an event task with start and end times.
  * An <code>Event</code> object corresponds to a task that occurs within a specific time period.
+ * The dates are kept as epoch days and only rendered to text when the task is displayed or stored.
  */
 public class Event extends Task {
 
-    protected String from;
-    protected String to;
-    protected String reformatStartTime;
-    protected String reformatEndTime;
+    protected final int fromDay;
+    protected final int toDay;
 
     /**
      * Constructs a new Event task with the specified description, start time, and end time.
@@ -22,8 +21,6 @@ public class Event extends Task {
      */
     public Event(String description, String from, String to) {
         super(description);
-        this.from = from;
-        this.to = to;
 
         // These will now throw IllegalArgumentException for any invalid dates
         LocalDate fromDate = super.validateAndParseDate(from);
@@ -33,10 +30,82 @@ public class Event extends Task {
             throw new IllegalArgumentException("Start date cannot be after end date!");
         }
 
-        this.reformatStartTime = super.reformatDate(from);
-        this.reformatEndTime = super.reformatDate(to);
+        this.fromDay = (int) fromDate.toEpochDay();
+        this.toDay = (int) toDate.toEpochDay();
     }
 
+    private Event(String description, int fromDay, int toDay) {
+        super(description);
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    /**
+     * Rebuilds an event from its stored form, skipping the validation done for user input.
+     * Each date is parsed once to reject corrupted data, but dates that have since passed are accepted.
+     *
+     * @param description Description of the event.
+     * @param storedFrom Start date in MMM dd yyyy format, as written by {@link #formatToStore()}.
+     * @param storedTo End date in MMM dd yyyy format.
+     * @return The restored event.
+     * @throws IllegalArgumentException if a stored date cannot be parsed or the start is after the end.
+     */
+    public static Event restore(String description, String storedFrom, String storedTo) {
+        int fromDay = DateCodec.parseStoredDate(storedFrom);
+        int toDay = DateCodec.parseStoredDate(storedTo);
+        if (fromDay > toDay) {
+            throw new IllegalArgumentException("Start date cannot be after end date!");
+        }
+        return new Event(description, fromDay, toDay);
+    }
+
+    /**
+     * Rebuilds an event from already validated dates, skipping all input validation.
+     *
+     * @param description Description of the event.
+     * @param from Start date.
+     * @param to End date.
+     * @return The restored event.
+     */
+    public static Event restore(String description, LocalDate from, LocalDate to) {
+        return new Event(description, (int) from.toEpochDay(), (int) to.toEpochDay());
+    }
+
+    /**
+     * Returns the date the event starts on.
+     *
+     * @return Start date.
+     */
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(fromDay);
+    }
+
+    /**
+     * Returns the date the event ends on.
+     *
+     * @return End date.
+     */
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay(toDay);
+    }
+
+    /**
+     * Returns the start date as an epoch day, which is cheap to compare and sort by.
+     *
+     * @return Days since 1970-01-01 of the start date.
+     */
+    public int getStartDay() {
+        return fromDay;
+    }
+
+    /**
+     * Returns the end date as an epoch day, which is cheap to compare and sort by.
+     *
+     * @return Days since 1970-01-01 of the end date.
+     */
+    public int getEndDay() {
+        return toDay;
+    }
 
     /**
      * Returns the formatted string for storing the event task to file.
@@ -48,11 +117,12 @@ public class Event extends Task {
     public String formatToStore() {
         String status = isDone ? "1" : "0";
         return "E | " + status + " | " + this.description
-                + " | " + this.reformatStartTime + " | " + this.reformatEndTime;
+                + " | " + DateCodec.format(fromDay) + " | " + DateCodec.format(toDay);
     }
 
     @Override
     public String toString() {
-        return "[E]" + super.toString() + " (from: " + reformatStartTime + " to: " + reformatEndTime + ")";
+        return "[E]" + super.toString() + " (from: " + DateCodec.format(fromDay)
+                + " to: " + DateCodec.format(toDay) + ")";
     }
 }
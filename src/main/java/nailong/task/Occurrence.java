@@ -0,0 +1,35 @@
+package nailong.task;
+
+/**
+ * One occurrence of a {@link Recurring} task, as shown in the results of a date query.
+ * An <code>Occurrence</code> is a snapshot made on demand and is never added to a task list;
+ * occurrences are marked through the recurring task they belong to.
+ */
+public class Occurrence extends Task {
+    private final Recurring recurring;
+    private final int day;
+
+    Occurrence(Recurring recurring, int day) {
+        super(recurring.getDescription());
+        this.recurring = recurring;
+        this.day = day;
+        this.isDone = recurring.isOccurrenceDone(day);
+        setId(recurring.getId());
+    }
+
+    public Recurring getRecurring() {
+        return recurring;
+    }
+
+    /**
+     * Returns the day of this occurrence as an epoch day.
+     */
+    public int getDay() {
+        return day;
+    }
+
+    @Override
+    public String toString() {
+        return "[R]" + super.toString() + " (on: " + DateCodec.format(day) + ")";
+    }
+}
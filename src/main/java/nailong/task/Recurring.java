@@ -0,0 +1,253 @@
+package nailong.task;
+
+import java.util.Arrays;
+
+/**
+ * Represents a task that repeats every few days, such as a daily standup or a weekly review.
+ * A <code>Recurring</code> task stores only its rule and the days of the occurrences already done,
+ * so it takes the same space however many occurrences it has. Occurrences are worked out on demand
+ * for the days asked about. Marking the task itself done counts every occurrence as done.
+ */
+public class Recurring extends Task {
+    /** End day of a rule that repeats forever. */
+    public static final int NO_END = Integer.MAX_VALUE;
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int[] NO_DAYS = new int[0];
+    private static final String NONE_STORED = "-";
+
+    protected final int startDay;
+    protected final int intervalDays;
+    protected final int endDay;
+    /** Epoch days of the occurrences marked done, in ascending order. */
+    private int[] doneDays = NO_DAYS;
+
+    /**
+     * Constructs a new recurring task from user input.
+     *
+     * @param description Description of the task.
+     * @param from Date of the first occurrence.
+     * @param intervalDays Number of days between occurrences.
+     * @param until Date after which there are no more occurrences, or null to repeat forever.
+     * @throws IllegalArgumentException if a date is invalid or in the past, or the rule is empty.
+     */
+    public Recurring(String description, String from, int intervalDays, String until) {
+        super(description);
+        if (intervalDays < 1) {
+            throw new IllegalArgumentException("Tasks can only repeat every 1 day or more!");
+        }
+        this.startDay = (int) super.validateAndParseDate(from).toEpochDay();
+        this.intervalDays = intervalDays;
+        this.endDay = until == null ? NO_END : (int) super.validateAndParseDate(until).toEpochDay();
+        if (endDay < startDay) {
+            throw new IllegalArgumentException("Start date cannot be after end date!");
+        }
+    }
+
+    private Recurring(String description, int startDay, int intervalDays, int endDay, int[] doneDays) {
+        super(description);
+        if (intervalDays < 1 || endDay < startDay) {
+            throw new IllegalArgumentException("Invalid repeat rule!");
+        }
+        this.startDay = startDay;
+        this.intervalDays = intervalDays;
+        this.endDay = endDay;
+        this.doneDays = doneDays;
+    }
+
+    /**
+     * Rebuilds a recurring task from its stored form, skipping the validation done for user input.
+     *
+     * @param description Description of the task.
+     * @param storedFrom First occurrence in MMM dd yyyy format, as written by {@link #formatToStore()}.
+     * @param storedInterval Number of days between occurrences.
+     * @param storedUntil Last possible day in MMM dd yyyy format, or "-" for no end.
+     * @param storedDoneDays Comma-separated days of done occurrences, or "-" for none.
+     * @return The restored task.
+     * @throws IllegalArgumentException if a stored field cannot be parsed.
+     */
+    public static Recurring restore(String description, String storedFrom, String storedInterval,
+            String storedUntil, String storedDoneDays) {
+        int[] doneDays = NO_DAYS;
+        if (!storedDoneDays.equals(NONE_STORED)) {
+            String[] days = storedDoneDays.split(",");
+            doneDays = new int[days.length];
+            for (int i = 0; i < days.length; i++) {
+                doneDays[i] = DateCodec.parseStoredDate(days[i]);
+            }
+        }
+        int endDay = storedUntil.equals(NONE_STORED) ? NO_END : DateCodec.parseStoredDate(storedUntil);
+        try {
+            return restore(description, DateCodec.parseStoredDate(storedFrom), Integer.parseInt(storedInterval),
+                    endDay, doneDays);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid stored interval: " + storedInterval);
+        }
+    }
+
+    /**
+     * Rebuilds a recurring task from already decoded fields.
+     *
+     * @param description Description of the task.
+     * @param startDay Epoch day of the first occurrence.
+     * @param intervalDays Number of days between occurrences.
+     * @param endDay Last possible epoch day, or {@link #NO_END}.
+     * @param doneDays Epoch days of the done occurrences; not kept by the task.
+     * @return The restored task.
+     * @throws IllegalArgumentException if the rule is empty or a done day is not an occurrence.
+     */
+    public static Recurring restore(String description, int startDay, int intervalDays, int endDay,
+            int[] doneDays) {
+        Recurring task = new Recurring(description, startDay, intervalDays, endDay, NO_DAYS);
+        int[] sorted = doneDays.clone();
+        Arrays.sort(sorted);
+        for (int day : sorted) {
+            if (!task.isOccurrence(day)) {
+                throw new IllegalArgumentException("Done day " + DateCodec.format(day) + " is not an occurrence!");
+            }
+        }
+        task.doneDays = sorted;
+        return task;
+    }
+
+    public int getStartDay() {
+        return startDay;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    /**
+     * Returns the last day an occurrence may fall on, or {@link #NO_END} if the task repeats forever.
+     */
+    public int getEndDay() {
+        return endDay;
+    }
+
+    /**
+     * Returns the epoch days of the occurrences marked done, in ascending order.
+     */
+    public int[] getDoneOccurrenceDays() {
+        return doneDays.clone();
+    }
+
+    /**
+     * Checks whether the task occurs on a day.
+     *
+     * @param day Epoch day.
+     * @return True if an occurrence falls on the day.
+     */
+    public boolean isOccurrence(int day) {
+        return day >= startDay && day <= endDay && ((long) day - startDay) % intervalDays == 0;
+    }
+
+    /**
+     * Returns the days of the occurrences within a range, without looking at any other occurrence.
+     *
+     * @param fromDay First day of the range as an epoch day, inclusive.
+     * @param toDay Last day of the range as an epoch day, inclusive.
+     * @return Epoch days of the occurrences in the range, in ascending order.
+     */
+    public int[] occurrencesBetween(int fromDay, int toDay) {
+        long first = Math.max(fromDay, startDay);
+        long last = Math.min(toDay, endDay);
+        // Round the start of the range up to the next occurrence
+        first = startDay + ((first - startDay + intervalDays - 1) / intervalDays) * intervalDays;
+        if (first > last) {
+            return NO_DAYS;
+        }
+        int[] days = new int[(int) ((last - first) / intervalDays + 1)];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = (int) (first + (long) i * intervalDays);
+        }
+        return days;
+    }
+
+    /**
+     * Returns whether the occurrence on a day is done, either by itself or because the whole task is.
+     *
+     * @param day Epoch day of an occurrence.
+     */
+    public boolean isOccurrenceDone(int day) {
+        return isDone || Arrays.binarySearch(doneDays, day) >= 0;
+    }
+
+    /**
+     * Marks the occurrence on a day as done or not done.
+     *
+     * @param day Epoch day of the occurrence.
+     * @param isOccurrenceDone New completion status of that occurrence.
+     * @throws IllegalArgumentException if the task does not occur on the day.
+     */
+    public void setOccurrenceDone(int day, boolean isOccurrenceDone) {
+        if (!isOccurrence(day)) {
+            throw new IllegalArgumentException("This task does not happen on " + DateCodec.format(day) + "!");
+        }
+        int position = Arrays.binarySearch(doneDays, day);
+        if (isOccurrenceDone && position < 0) {
+            int insertAt = -position - 1;
+            int[] grown = new int[doneDays.length + 1];
+            System.arraycopy(doneDays, 0, grown, 0, insertAt);
+            grown[insertAt] = day;
+            System.arraycopy(doneDays, insertAt, grown, insertAt + 1, doneDays.length - insertAt);
+            doneDays = grown;
+        } else if (!isOccurrenceDone && position >= 0) {
+            int[] shrunk = new int[doneDays.length - 1];
+            System.arraycopy(doneDays, 0, shrunk, 0, position);
+            System.arraycopy(doneDays, position + 1, shrunk, position, shrunk.length - position);
+            doneDays = shrunk;
+        }
+    }
+
+    /**
+     * Returns a view of the occurrence on a day, with that occurrence's completion status.
+     *
+     * @param day Epoch day of the occurrence.
+     * @return The occurrence.
+     */
+    public Occurrence occurrenceOn(int day) {
+        return new Occurrence(this, day);
+    }
+
+    /**
+     * Returns the formatted string for storing the recurring task to file.
+     * Format: "R | status | description | start | interval in days | end or - | done days or -"
+     *
+     * @return Formatted string for file storage.
+     */
+    @Override
+    public String formatToStore() {
+        String status = isDone ? "1" : "0";
+        StringBuilder stored = new StringBuilder("R | ").append(status).append(" | ").append(description)
+                .append(" | ").append(DateCodec.format(startDay)).append(" | ").append(intervalDays)
+                .append(" | ").append(endDay == NO_END ? NONE_STORED : DateCodec.format(endDay)).append(" | ");
+        if (doneDays.length == 0) {
+            stored.append(NONE_STORED);
+        }
+        for (int i = 0; i < doneDays.length; i++) {
+            stored.append(i == 0 ? "" : ",").append(DateCodec.format(doneDays[i]));
+        }
+        return stored.toString();
+    }
+
+    private String describeInterval() {
+        if (intervalDays == 1) {
+            return "day";
+        }
+        if (intervalDays == DAYS_PER_WEEK) {
+            return "week";
+        }
+        if (intervalDays % DAYS_PER_WEEK == 0) {
+            return (intervalDays / DAYS_PER_WEEK) + " weeks";
+        }
+        return intervalDays + " days";
+    }
+
+    @Override
+    public String toString() {
+        String until = endDay == NO_END ? "" : " until: " + DateCodec.format(endDay);
+        return "[R]" + super.toString() + " (every " + describeInterval() + " from: "
+                + DateCodec.format(startDay) + until + ")";
+    }
+}
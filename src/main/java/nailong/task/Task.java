@@ -1,10 +1,5 @@
 package nailong.task;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.format.ResolverStyle;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -15,8 +10,7 @@ import java.util.regex.Pattern;
 public class Task {
     protected String description;
     protected boolean isDone;
-    private final Pattern patternRegex = Pattern.compile("\\d{1,2}/\\d{1,2}/\\d{4}");
-    private Matcher matcher;
+    private int id = -1;
 
     /**
      * Constructs a new Task with the specified description.
@@ -29,6 +23,27 @@ public class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns the identifier the task list uses to refer to this task independently of its position.
+     * Identifiers increase in list order; -1 means the task has not been added to a list yet.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the identifier of this task. Only the task list should call this.
+     *
+     * @param id New identifier.
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
     public boolean isDone() {
         return isDone;
     }
@@ -76,32 +91,11 @@ public class Task {
      * @throws IllegalArgumentException if the date format is invalid or date doesn't exist.
      */
     public LocalDate validateAndParseDate(String dateString) {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            throw new IllegalArgumentException("Date cannot be empty");
-        }
-
-        matcher = patternRegex.matcher(dateString.trim());
-
-        if (!matcher.find()) {
-            throw new IllegalArgumentException("Invalid date format! Please use dd/MM/yyyy! (e.g 25/12/2025)");
-        }
-
-        try {
-            String datePart = matcher.group();
-            DateTimeFormatter strictFmt =
-                    DateTimeFormatter.ofPattern("d/M/uuuu")
-                            .withResolverStyle(ResolverStyle.STRICT);
-            LocalDate parsedDate = LocalDate.parse(datePart, strictFmt);
-
-            LocalDate today = LocalDate.now();
-            if (parsedDate.isBefore(today)) {
-                throw new IllegalArgumentException("Cannot create tasks for past dates! Please use a future date.");
-            }
-
-            return parsedDate;
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid date! Date does not exist!");
+        int epochDay = DateCodec.parseInputDate(dateString);
+        if (epochDay < DateCodec.today()) {
+            throw new IllegalArgumentException("Cannot create tasks for past dates! Please use a future date.");
         }
+        return LocalDate.ofEpochDay(epochDay);
     }
 
     /**
@@ -113,8 +107,7 @@ public class Task {
      * @throws IllegalArgumentException if the date format is invalid.
      */
     public String reformatDate(String time) {
-        LocalDate localDate = validateAndParseDate(time);
-        String formattedDate = localDate.format(DateTimeFormatter.ofPattern("MMM dd yyyy"));;;
+        String formattedDate = DateCodec.format((int) validateAndParseDate(time).toEpochDay());
 
         assert formattedDate != null : "Formatted date should not be null";
         return formattedDate;
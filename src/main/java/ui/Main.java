@@ -8,6 +8,7 @@ import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import nailong.Nailong;
+import nailong.StorageOptions;
 
 
 /**
@@ -15,7 +16,11 @@ import nailong.Nailong;
  */
 public class Main extends Application {
 
-    private Nailong nailong = new Nailong("./data/Nailong.txt");
+    // Saving happens off the JavaFX thread so typing never waits on disk I/O
+    private Nailong nailong = new Nailong("./data/Nailong.txt", new StorageOptions()
+            .withWriteBehind(StorageOptions.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                    StorageOptions.DEFAULT_MAX_FLUSH_LATENCY_MILLIS)
+            .withDescriptionDedup());
 
     @Override
     public void start(Stage stage) {
@@ -35,5 +40,10 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        nailong.close();
+    }
 }
 
@@ -0,0 +1,56 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void run_script_writesResponsesAndSavesOnceAtTheEnd() throws IOException {
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Nailong nailong = new Nailong(dataFile.toString(), new StorageOptions().withDeferredSaves());
+        nailong.getResponse("todo before the batch");
+        assertFalse(Files.exists(dataFile) && Files.size(dataFile) > 0);
+
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            script.append("todo task").append(i).append('\n');
+        }
+        script.append("\nmark 1\nbye\ntodo after bye\n");
+        StringWriter out = new StringWriter();
+        int count = new BatchRunner(nailong, 0).run(new BufferedReader(new StringReader(script.toString())), out);
+
+        assertEquals(102, count);
+        assertTrue(out.toString().contains("[T][X] before the batch"));
+        assertEquals(101, Files.readAllLines(dataFile).size());
+        assertTrue(Files.exists(UndoLog.pathFor(dataFile)));
+    }
+
+    @Test
+    public void run_checkpointInterval_savesDuringTheBatch() throws IOException {
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Nailong nailong = new Nailong(dataFile.toString(), new StorageOptions().withDeferredSaves());
+
+        new BatchRunner(nailong, 2).run(new BufferedReader(new StringReader("todo a\ntodo b\ntodo c\n")),
+                new StringWriter());
+        nailong.getResponse("todo d");
+
+        assertEquals(3, Files.readAllLines(dataFile).size());
+        nailong.close();
+        assertEquals(4, Files.readAllLines(dataFile).size());
+    }
+}
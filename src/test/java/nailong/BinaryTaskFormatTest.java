@@ -0,0 +1,121 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class BinaryTaskFormatTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void encodeThenRead_allTaskTypes_roundTrips() throws IOException {
+        List<Task> tasks = List.of(new Todo("read book 📚"), new Deadline("return book", "25/12/2099"),
+                new Event("camp", "22/09/2099", "24/09/2099"));
+        tasks.get(1).markDone();
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, BinaryTaskFormat.encode(tasks.size(), tasks::get));
+
+        assertTrue(BinaryTaskFormat.isBinary(file));
+        ArrayList<Task> loaded = BinaryTaskFormat.read(file);
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).formatToStore(), loaded.get(i).formatToStore());
+        }
+    }
+
+    @Test
+    public void read_truncatedFile_keepsCompleteRecords() throws IOException {
+        List<Task> tasks = List.of(new Todo("first"), new Todo("second"));
+        byte[] bytes = BinaryTaskFormat.encode(tasks.size(), tasks::get);
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ArrayList<Task> loaded = BinaryTaskFormat.read(file);
+        assertEquals(1, loaded.size());
+        assertEquals("T | 0 | first", loaded.get(0).formatToStore());
+    }
+
+    @Test
+    public void read_truncatedHeader_throwsIOException() throws IOException {
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, ByteBuffer.allocate(6).putInt(BinaryTaskFormat.MAGIC).putShort((short) 2).array());
+
+        assertThrows(IOException.class, () -> BinaryTaskFormat.read(file));
+    }
+
+    @Test
+    public void read_countLargerThanFile_throwsIOException() throws IOException {
+        List<Task> tasks = List.of(new Todo("only"));
+        byte[] bytes = BinaryTaskFormat.encode(tasks.size(), tasks::get);
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES + Short.BYTES, Integer.MAX_VALUE);
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> BinaryTaskFormat.read(file));
+    }
+
+    @Test
+    public void read_descriptionLengthPastEnd_keepsEarlierRecords() throws IOException {
+        List<Task> tasks = List.of(new Todo("first"), new Todo("second"));
+        byte[] bytes = BinaryTaskFormat.encode(tasks.size(), tasks::get);
+        int secondLength = bytes.length - "second".length() - Integer.BYTES;
+        ByteBuffer.wrap(bytes).putInt(secondLength, Integer.MAX_VALUE);
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, bytes);
+
+        ArrayList<Task> loaded = BinaryTaskFormat.read(file);
+        assertEquals(1, loaded.size());
+        assertEquals("T | 0 | first", loaded.get(0).formatToStore());
+    }
+
+    @Test
+    public void load_pipeFormatFile_convertedToBinaryOnFirstLoad() throws IOException {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "T | 1 | borrow book\nT | 0 | return book\n");
+        Storage storage = new Storage(file.toString(), new StorageOptions().withBinaryFormat());
+
+        ArrayList<Task> loaded = storage.load();
+
+        assertEquals(2, loaded.size());
+        assertTrue(BinaryTaskFormat.isBinary(file));
+        assertFalse(BinaryTaskFormat.isBinary(tempDir.resolve("tasks.txt.bak")));
+        ArrayList<Task> reloaded = new Storage(file.toString(), new StorageOptions().withBinaryFormat()).load();
+        assertEquals("T | 1 | borrow book", reloaded.get(0).formatToStore());
+        assertEquals("T | 0 | return book", reloaded.get(1).formatToStore());
+    }
+
+    @Test
+    public void encodeThenRead_recurringTask_keepsDoneOccurrences() throws IOException {
+        Recurring review = new Recurring("review", "01/12/2099", 7, null);
+        review.setOccurrenceDone((int) LocalDate.of(2099, 12, 15).toEpochDay(), true);
+        List<Task> tasks = List.of(new Todo("first"), review, new Todo("last"));
+        Path file = tempDir.resolve("tasks.bin");
+        Files.write(file, BinaryTaskFormat.encode(tasks.size(), tasks::get));
+
+        ArrayList<Task> read = BinaryTaskFormat.read(file);
+        assertEquals(3, read.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).formatToStore(), read.get(i).formatToStore());
+        }
+    }
+}
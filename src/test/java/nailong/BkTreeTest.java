@@ -0,0 +1,44 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class BkTreeTest {
+
+    @Test
+    public void distance_knownPairs_countsEdits() {
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(0, BkTree.distance("book", "book"));
+        assertEquals(4, BkTree.distance("", "book"));
+    }
+
+    @Test
+    public void search_manyWords_matchesFullScan() {
+        BkTree tree = new BkTree();
+        String[] words = {"book", "books", "cook", "look", "brook", "read", "bread", "dread", "milk", "silk", "mild"};
+        for (String word : words) {
+            tree.add(word);
+        }
+        tree.add("book");
+
+        for (String query : new String[] {"boook", "reed", "mlk", "xyz"}) {
+            for (int k = 0; k <= 2; k++) {
+                TreeSet<String> expected = new TreeSet<>();
+                for (String word : words) {
+                    if (BkTree.distance(query, word) <= k) {
+                        expected.add(word);
+                    }
+                }
+                TreeSet<String> actual = new TreeSet<>();
+                for (BkTree.Match match : tree.search(query, k)) {
+                    actual.add(match.word);
+                }
+                assertEquals(expected, actual);
+            }
+        }
+        assertEquals(words.length, tree.size());
+    }
+}
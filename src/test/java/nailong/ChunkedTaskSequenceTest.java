@@ -0,0 +1,65 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class ChunkedTaskSequenceTest {
+
+    @Test
+    public void randomEdits_matchArrayList() {
+        Random random = new Random(7);
+        ArrayList<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            initial.add(new Todo("task " + i));
+        }
+        ArrayList<Task> expected = new ArrayList<>(initial);
+        ChunkedTaskSequence sequence = new ChunkedTaskSequence(initial);
+
+        for (int round = 0; round < 20000; round++) {
+            int choice = random.nextInt(3);
+            if (choice == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = new Todo("added " + round);
+                expected.add(index, task);
+                sequence.add(index, task);
+            } else if (choice == 1) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), sequence.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.get(index), sequence.get(index));
+            }
+        }
+
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), sequence.get(i));
+        }
+    }
+
+    @Test
+    public void emptySequence_growsFromNothingAndRejectsBadIndices() {
+        ChunkedTaskSequence sequence = new ChunkedTaskSequence(new ArrayList<>());
+        for (int i = 0; i < 2000; i++) {
+            sequence.add(new Todo("task " + i));
+        }
+        while (sequence.size() > 0) {
+            sequence.remove(0);
+        }
+        sequence.add(new Todo("last"));
+
+        assertEquals("last", sequence.get(0).getDescription());
+        assertThrows(IndexOutOfBoundsException.class, () -> sequence.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> sequence.add(3, new Todo("gap")));
+        assertThrows(IndexOutOfBoundsException.class, () -> sequence.remove(-1));
+    }
+}
@@ -0,0 +1,106 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class ColumnarTaskSequenceTest {
+
+    private static Task randomTask(Random random, int round) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return Deadline.restore("deadline " + round, LocalDate.ofEpochDay(20000 + random.nextInt(100)));
+        case 1:
+            int start = 20000 + random.nextInt(100);
+            return Event.restore("évènement " + round, LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(start + 3));
+        default:
+            return new Todo("todo " + round);
+        }
+    }
+
+    @Test
+    public void randomEdits_matchObjectList() {
+        Random random = new Random(5);
+        ArrayList<Task> expected = new ArrayList<>();
+        ColumnarTaskSequence sequence = new ColumnarTaskSequence(new ArrayList<>());
+
+        for (int round = 0; round < 5000; round++) {
+            int choice = random.nextInt(4);
+            if (choice <= 1 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = randomTask(random, round);
+                task.setId(round);
+                expected.add(index, task);
+                sequence.add(index, task);
+            } else if (choice == 2) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index).formatToStore(), sequence.remove(index).formatToStore());
+            } else {
+                int index = random.nextInt(expected.size());
+                boolean isDone = random.nextBoolean();
+                if (isDone) {
+                    expected.get(index).markDone();
+                } else {
+                    expected.get(index).markUndone();
+                }
+                sequence.setDone(index, isDone);
+            }
+        }
+
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).formatToStore(), sequence.get(i).formatToStore());
+            assertEquals(expected.get(i).getId(), sequence.get(i).getId());
+        }
+    }
+
+    @Test
+    public void taskList_columnarBacking_keepsStatusAndIndexesCurrent() {
+        ArrayList<Task> initial = new ArrayList<>();
+        initial.add(new Todo("read book"));
+        initial.add(Deadline.restore("essay", LocalDate.of(2026, 12, 20)));
+        TaskList tasks = new TaskList(new ColumnarTaskSequence(initial));
+        DateIndex dates = new DateIndex(tasks);
+
+        tasks.markTask(1);
+        tasks.addTaskAtIndex(new Todo("first"), 0);
+
+        assertEquals("[D][X] essay (by: Dec 20 2026)", dates.before(30000).get(0).toString());
+        assertEquals(2, tasks.getTask(2).getId());
+        assertThrows(IllegalArgumentException.class, () -> tasks.addTask(new Task("plain")));
+    }
+
+    @Test
+    public void setOccurrenceDone_recurringTask_keepsRuleAndDoneDays() {
+        ArrayList<Task> initial = new ArrayList<>();
+        initial.add(new Todo("read book"));
+        initial.add(Recurring.restore("standup ☕", 20000, 1, 20100, new int[] {20005}));
+        ColumnarTaskSequence sequence = new ColumnarTaskSequence(initial);
+
+        sequence.setOccurrenceDone(1, 20003, true);
+        sequence.setOccurrenceDone(1, 20005, false);
+        for (int i = 0; i < 100; i++) {
+            sequence.add(0, new Todo("filler " + i));
+        }
+        sequence.setDone(100, true);
+
+        Recurring standup = (Recurring) sequence.get(101);
+        assertEquals("standup ☕", standup.getDescription());
+        assertEquals(20100, standup.getEndDay());
+        assertArrayEquals(new int[] {20003}, standup.getDoneOccurrenceDays());
+        assertEquals("[T][X] read book", sequence.get(100).toString());
+        assertThrows(IllegalArgumentException.class, () -> sequence.setOccurrenceDone(100, 20003, true));
+    }
+}
@@ -0,0 +1,201 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class CommandHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Nailong nailong(int historyDepth) {
+        return new Nailong(tempDir.resolve("tasks.txt").toString(),
+                new StorageOptions().withHistoryDepth(historyDepth));
+    }
+
+    private static int countTasks(Nailong nailong) {
+        return (int) nailong.getResponse("list").lines().filter(line -> line.contains("[T]")).count();
+    }
+
+    @Test
+    public void undo_pastDepth_forgetsOldestCommands() {
+        Nailong nailong = nailong(3);
+        for (int i = 0; i < 5; i++) {
+            nailong.getResponse("todo task" + i);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            nailong.getResponse("undo");
+        }
+        assertTrue(nailong.getResponse("undo").startsWith("Nothing to undo"));
+        assertEquals(2, countTasks(nailong));
+    }
+
+    @Test
+    public void redo_afterUndo_reappliesUntilNewCommand() {
+        Nailong nailong = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        nailong.getResponse("todo read");
+        nailong.getResponse("todo write");
+        nailong.getResponse("mark 1");
+        nailong.getResponse("delete 2");
+
+        nailong.getResponse("undo");
+        nailong.getResponse("undo");
+        assertEquals(2, countTasks(nailong));
+        assertTrue(nailong.getResponse("list").contains("[T][ ] read"));
+
+        nailong.getResponse("redo");
+        assertTrue(nailong.getResponse("list").contains("[T][X] read"));
+        nailong.getResponse("redo");
+        assertEquals(1, countTasks(nailong));
+        assertTrue(nailong.getResponse("redo").startsWith("Nothing to redo"));
+
+        nailong.getResponse("undo");
+        nailong.getResponse("todo draw");
+        assertTrue(nailong.getResponse("redo").startsWith("Nothing to redo"));
+        assertEquals(3, countTasks(nailong));
+    }
+
+    @Test
+    public void undo_afterRestart_usesPersistedHistory() {
+        Nailong before = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        before.getResponse("todo read");
+        before.getResponse("todo write");
+        before.getResponse("mark 2");
+        before.getResponse("delete 1");
+        before.getResponse("undo");
+
+        Nailong after = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        assertEquals(2, countTasks(after));
+        after.getResponse("redo");
+        assertEquals(1, countTasks(after));
+        after.getResponse("undo");
+        after.getResponse("undo");
+        assertTrue(after.getResponse("list").contains("[T][ ] write"));
+        after.getResponse("undo");
+        after.getResponse("undo");
+        assertEquals(0, countTasks(after));
+        assertTrue(after.getResponse("undo").startsWith("Nothing to undo"));
+    }
+
+    @Test
+    public void addCommand_manyCommands_keepsLogBoundedByDepth() throws IOException {
+        Nailong nailong = nailong(10);
+        for (int i = 0; i < 200; i++) {
+            nailong.getResponse("todo task" + i);
+        }
+
+        Path log = UndoLog.pathFor(tempDir.resolve("tasks.txt"));
+        assertTrue(Files.readAllLines(log).size() <= 31);
+        for (int i = 0; i < 10; i++) {
+            nailong.getResponse("undo");
+        }
+        assertTrue(nailong.getResponse("undo").startsWith("Nothing to undo"));
+        assertEquals(190, countTasks(nailong));
+    }
+
+    @Test
+    public void undo_batchCommands_revertsWholeBatchAcrossRestart() {
+        Nailong before = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        for (int i = 1; i <= 6; i++) {
+            before.getResponse("todo task" + i);
+        }
+        before.getResponse("mark 2-4");
+        before.getResponse("mark 6");
+        before.getResponse("delete done");
+        assertEquals(2, countTasks(before));
+        assertTrue(before.getResponse("list").contains("1. [T][ ] task1"));
+        assertTrue(before.getResponse("list").contains("2. [T][ ] task5"));
+
+        Nailong after = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        after.getResponse("undo");
+        assertEquals(6, countTasks(after));
+        assertTrue(after.getResponse("list").contains("4. [T][X] task4"));
+        after.getResponse("undo");
+        after.getResponse("undo");
+        assertTrue(after.getResponse("mark all").contains("6 task(s)"));
+        after.getResponse("undo");
+        assertTrue(after.getResponse("list").contains("6. [T][ ] task6"));
+        after.getResponse("redo");
+        assertTrue(after.getResponse("unmark 1-6").contains("6 task(s)"));
+        assertTrue(after.getResponse("mark 0-2").contains("Invalid task range"));
+    }
+
+    @Test
+    public void undo_occurrenceMarkAfterRestart_unmarksOnlyThatDay() {
+        Nailong before = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        before.getResponse("recur review /every week /from 01/12/2099");
+        assertTrue(before.getResponse("mark 1 /on 08/12/2099").contains("[R][X] review (on: Dec 08 2099)"));
+        before.getResponse("mark 1 /on 15/12/2099");
+        assertTrue(before.getResponse("mark 1 /on 09/12/2099").contains("does not happen"));
+
+        Nailong after = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        after.getResponse("undo");
+        String due = after.getResponse("due 01/12/2099 20/12/2099");
+        assertTrue(due.contains("1. [R][ ] review (on: Dec 01 2099)"));
+        assertTrue(due.contains("2. [R][X] review (on: Dec 08 2099)"));
+        assertTrue(due.contains("3. [R][ ] review (on: Dec 15 2099)"));
+        assertTrue(after.getResponse("on 15/12/2099").contains("[R][ ] review (on: Dec 15 2099)"));
+    }
+
+    @Test
+    public void undoLog_writeBehindStorage_writtenOnlyAfterTasks() throws IOException {
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Nailong nailong = new Nailong(dataFile.toString(), new StorageOptions().withWriteBehind(60_000, 60_000));
+        nailong.getResponse("todo read");
+        nailong.getResponse("mark 1");
+
+        Path log = UndoLog.pathFor(dataFile);
+        assertTrue(!Files.exists(log) || Files.size(log) == 0);
+        nailong.flush();
+        assertEquals(1, Files.readAllLines(dataFile).size());
+        assertEquals(2, Files.readAllLines(log).size());
+        nailong.close();
+    }
+
+    @Test
+    public void undo_batchWithChangeOutOfRange_leavesListUnchanged() {
+        TaskList tasks = new TaskList(new ArrayList<Task>(List.of(new Todo("read"), new Todo("write"))));
+        tasks.markTask(0);
+        tasks.markTask(1);
+        CommandHistory.Command[] changes = {new CommandHistory.MarkCommand(0), new CommandHistory.MarkCommand(5),
+            new CommandHistory.MarkCommand(1)};
+        CommandHistory.BatchCommand batch = new CommandHistory.BatchCommand(changes);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.undo(tasks));
+        assertTrue(tasks.getTask(0).isDone());
+        assertTrue(tasks.getTask(1).isDone());
+
+        tasks.unmarkTask(0);
+        tasks.unmarkTask(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.redo(tasks));
+        assertTrue(!tasks.getTask(0).isDone());
+        assertTrue(!tasks.getTask(1).isDone());
+    }
+
+    @Test
+    public void undo_occurrenceOfTaskReplacedOutsideNailong_clearsHistory() throws IOException {
+        Nailong before = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        before.getResponse("recur review /every week /from 01/12/2099");
+        before.getResponse("mark 1 /on 08/12/2099");
+        Files.writeString(tempDir.resolve("tasks.txt"), "T | 0 | not recurring\n");
+
+        Nailong after = nailong(CommandHistory.DEFAULT_HISTORY_DEPTH);
+        assertTrue(after.getResponse("undo").contains("doesn’t match your list"));
+        assertTrue(after.getResponse("undo").startsWith("Nothing to undo"));
+        assertTrue(after.getResponse("list").contains("1. [T][ ] not recurring"));
+    }
+}
@@ -0,0 +1,45 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Event;
+
+public class CommandLineTest {
+
+    @Test
+    public void parts_irregularSpacing_matchesRegexSplit() {
+        String[] inputs = {"  Mark   3 ", "list", "", "   ", "find book\t/or  pen"};
+        for (String input : inputs) {
+            assertArrayEquals(input.trim().split("\\s+"), new CommandLine(input).parts());
+        }
+        assertEquals("mark", new CommandLine("  Mark   3 ").getKeyword());
+    }
+
+    @Test
+    public void text_betweenMarkers_keepsInnerSpacing() {
+        CommandLine line = new CommandLine("event team  meeting /from 01/12/2026 /to 05/12/2026");
+        int from = line.indexOf("/from", 0);
+        int to = line.indexOf("/to", from);
+
+        assertEquals("team  meeting", line.text(1, from));
+        assertEquals("01/12/2026", line.text(from + 1, to));
+        assertEquals("05/12/2026", line.text(to + 1, line.getTokenCount()));
+        assertEquals(-1, line.indexOf("/by", 0));
+    }
+
+    @Test
+    public void parseEventCommand_markersOutOfOrder_throws() {
+        Parser parser = new Parser();
+        Event event = parser.parseEventCommand(new CommandLine("event camp /from 01/12/2026 /to 05/12/2026"));
+
+        assertEquals("camp", event.getDescription());
+        assertThrows(IllegalArgumentException.class, () ->
+                parser.parseEventCommand(new CommandLine("event camp /to 05/12/2026 /from 01/12/2026")));
+        assertThrows(IllegalArgumentException.class, () ->
+                parser.parseDeadlineCommand(new CommandLine("deadline essay /by 01/12/2026 /by 02/12/2026")));
+    }
+}
@@ -0,0 +1,76 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Deadline;
+import nailong.task.Event;
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class DateIndexTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    private static String describe(ArrayList<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        for (Task task : tasks) {
+            sb.append(task.getDescription()).append(";");
+        }
+        return sb.toString();
+    }
+
+    private static TaskList sampleList() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(Deadline.restore("essay", LocalDate.of(2026, 12, 20)));
+        tasks.add(new Todo("laundry"));
+        tasks.add(Event.restore("camp", LocalDate.of(2026, 12, 1), LocalDate.of(2026, 12, 5)));
+        tasks.add(Deadline.restore("taxes", LocalDate.of(2026, 12, 1)));
+        tasks.add(Deadline.restore("gifts", LocalDate.of(2027, 1, 2)));
+        return new TaskList(tasks);
+    }
+
+    @Test
+    public void between_range_returnsTasksByDateThenListOrder() {
+        TaskList tasks = sampleList();
+        DateIndex index = new DateIndex(tasks);
+
+        assertEquals("camp;taxes;essay;", describe(index.between(day(2026, 12, 1), day(2026, 12, 31))));
+        assertEquals("essay;", describe(index.between(day(2026, 12, 20), day(2026, 12, 20))));
+        assertEquals("camp;taxes;", describe(index.before(day(2026, 12, 20))));
+    }
+
+    @Test
+    public void between_afterDeleteAndUndo_followsTaskList() {
+        TaskList tasks = sampleList();
+        DateIndex index = new DateIndex(tasks);
+
+        Task removed = tasks.removeTask(0);
+        assertEquals("camp;taxes;", describe(index.before(day(2027, 1, 1))));
+
+        tasks.addTaskAtIndex(removed, 0);
+        assertEquals("camp;taxes;essay;", describe(index.before(day(2027, 1, 1))));
+    }
+
+    @Test
+    public void between_recurringTask_mergesOccurrencesInWindow() {
+        TaskList tasks = sampleList();
+        tasks.addTask(Recurring.restore("review", day(2026, 11, 27), 7, Recurring.NO_END, new int[0]));
+        DateIndex index = new DateIndex(tasks);
+
+        assertEquals("camp;taxes;review;review;review;essay;",
+                describe(index.between(day(2026, 12, 1), day(2026, 12, 20))));
+        assertEquals("review;", describe(index.occurrencesBetween(day(2026, 12, 11), day(2026, 12, 11))));
+        assertEquals("review;camp;taxes;", describe(index.before(day(2026, 12, 4))));
+
+        tasks.removeTask(5);
+        assertEquals("camp;taxes;essay;", describe(index.between(day(2026, 12, 1), day(2026, 12, 20))));
+    }
+}
@@ -0,0 +1,73 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Event;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class EventIntervalIndexTest {
+
+    private static Event event(String description, int fromDay, int toDay) {
+        return Event.restore(description, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay));
+    }
+
+    private static String describe(ArrayList<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        for (Task task : tasks) {
+            sb.append(task.getDescription()).append(";");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void on_day_returnsEventsSpanningIt() {
+        ArrayList<Task> list = new ArrayList<>();
+        list.add(event("camp", 20000, 20004));
+        list.add(new Todo("laundry"));
+        list.add(event("talk", 20004, 20004));
+        list.add(event("trip", 19990, 20010));
+        list.add(event("later", 20005, 20006));
+        TaskList tasks = new TaskList(list);
+        EventIntervalIndex index = new EventIntervalIndex(tasks);
+
+        assertEquals("trip;camp;talk;", describe(index.on(20004)));
+        assertEquals("trip;later;", describe(index.on(20005)));
+        assertEquals("", describe(index.on(19989)));
+        assertEquals("trip;camp;talk;later;", describe(index.overlapping(20003, 20005)));
+    }
+
+    @Test
+    public void overlapping_randomAddsAndRemoves_matchesScan() {
+        Random random = new Random(12);
+        TaskList tasks = new TaskList(new ArrayList<>());
+        EventIntervalIndex index = new EventIntervalIndex(tasks);
+
+        for (int round = 0; round < 2000; round++) {
+            if (tasks.getTaskListSize() > 0 && random.nextInt(3) == 0) {
+                tasks.removeTask(random.nextInt(tasks.getTaskListSize()));
+            } else {
+                int start = random.nextInt(200);
+                tasks.addTask(event("e" + round, start, start + random.nextInt(15)));
+            }
+            int from = random.nextInt(220);
+            int to = from + random.nextInt(10);
+
+            ArrayList<Task> expected = new ArrayList<>();
+            for (int i = 0; i < tasks.getTaskListSize(); i++) {
+                Event event = (Event) tasks.getTask(i);
+                if (event.getStartDay() <= to && event.getEndDay() >= from) {
+                    expected.add(event);
+                }
+            }
+            expected.sort((a, b) -> Integer.compare(((Event) a).getStartDay(), ((Event) b).getStartDay()));
+            assertEquals(describe(expected), describe(index.overlapping(from, to)));
+        }
+    }
+}
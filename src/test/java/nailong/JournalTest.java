@@ -0,0 +1,124 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nailong.task.Recurring;
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class JournalTest {
+    @TempDir
+    Path tempDir;
+
+    private Storage journaledStorage(long threshold) {
+        return new Storage(tempDir.resolve("tasks.txt").toString(), new StorageOptions().withJournal(threshold));
+    }
+
+    private static String render(ArrayList<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        for (Task task : tasks) {
+            sb.append(task.formatToStore()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void save_journalMode_appendsInsteadOfRewriting() throws IOException {
+        Storage storage = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        TaskList tasks = new TaskList(storage.load());
+        storage.watch(tasks);
+
+        tasks.addTask(new Todo("read book"));
+        tasks.addTask(new Todo("buy milk"));
+        storage.save(tasks);
+        tasks.markTask(1);
+        storage.save(tasks);
+
+        assertEquals(0, Files.size(tempDir.resolve("tasks.txt")));
+        assertEquals("A|0|T | 0 | read book\nA|1|T | 0 | buy milk\nM|1\n",
+                Files.readString(tempDir.resolve("tasks.txt.journal")));
+    }
+
+    @Test
+    public void load_journalMode_replaysChangesOnTopOfSnapshot() throws IOException {
+        Files.writeString(tempDir.resolve("tasks.txt"), "T | 0 | first\nT | 1 | second\n");
+        Storage storage = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        TaskList tasks = new TaskList(storage.load());
+        storage.watch(tasks);
+
+        tasks.removeTask(0);
+        tasks.addTask(new Todo("third"));
+        tasks.unmarkTask(0);
+        tasks.addTaskAtIndex(new Todo("zeroth"), 0);
+        storage.save(tasks);
+
+        ArrayList<Task> reloaded = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES).load();
+        assertEquals("T | 0 | zeroth\nT | 0 | second\nT | 0 | third\n", render(reloaded));
+    }
+
+    @Test
+    public void save_journalPastThreshold_compactsIntoSnapshot() throws IOException {
+        Storage storage = journaledStorage(64);
+        TaskList tasks = new TaskList(storage.load());
+        storage.watch(tasks);
+        Path journal = tempDir.resolve("tasks.txt.journal");
+
+        for (int i = 0; i < 20; i++) {
+            tasks.addTask(new Todo("task " + i));
+            storage.save(tasks);
+            // Waits for any compaction the save started, so every fourth save folds the journal in
+            storage.flush();
+            assertTrue(!Files.exists(journal) || Files.size(journal) < 64);
+        }
+        storage.close();
+
+        assertTrue(!Files.exists(journal) || Files.size(journal) == 0);
+        assertFalse(Files.exists(tempDir.resolve("tasks.txt.journal.compacting")));
+        ArrayList<Task> snapshot = new Storage(tempDir.resolve("tasks.txt").toString()).load();
+        assertEquals(20, snapshot.size());
+        assertEquals("T | 0 | task 19", snapshot.get(19).formatToStore());
+    }
+
+    @Test
+    public void load_interruptedCompaction_recoversWithoutLosingChanges() throws IOException {
+        Files.writeString(tempDir.resolve("tasks.txt"), "T | 0 | old\n");
+        Files.writeString(tempDir.resolve("tasks.txt.journal.compacting"), "A|1|T | 0 | moved aside\n");
+        Files.writeString(tempDir.resolve("tasks.txt.tmp"), "T | 0 | half writ");
+        Files.writeString(tempDir.resolve("tasks.txt.journal"), "M|0\n");
+
+        ArrayList<Task> loaded = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES).load();
+
+        assertEquals("T | 1 | old\nT | 0 | moved aside\n", render(loaded));
+        assertFalse(Files.exists(tempDir.resolve("tasks.txt.journal.compacting")));
+        assertEquals("T | 0 | old" + System.lineSeparator() + "T | 0 | moved aside" + System.lineSeparator(),
+                Files.readString(tempDir.resolve("tasks.txt")));
+    }
+
+    @Test
+    public void load_journalMode_replaysOccurrenceChanges() throws IOException {
+        Storage storage = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        TaskList tasks = new TaskList(storage.load());
+        storage.watch(tasks);
+
+        tasks.addTask(Recurring.restore("standup", 20000, 1, Recurring.NO_END, new int[0]));
+        tasks.setOccurrenceDone(0, 20002, true);
+        tasks.setOccurrenceDone(0, 20004, true);
+        tasks.setOccurrenceDone(0, 20002, false);
+        storage.save(tasks);
+
+        Storage reloadedStorage = journaledStorage(StorageOptions.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        Recurring reloaded = (Recurring) reloadedStorage.load().get(0);
+        assertFalse(reloaded.isOccurrenceDone(20002));
+        assertTrue(reloaded.isOccurrenceDone(20004));
+    }
+}
@@ -0,0 +1,45 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class KeywordIndexTest {
+
+    private static TaskList listOf(String... descriptions) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (String description : descriptions) {
+            tasks.add(new Todo(description));
+        }
+        return new TaskList(tasks);
+    }
+
+    @Test
+    public void searchFuzzy_misspeltKeyword_ranksCloserWordsFirst() {
+        TaskList tasks = listOf("read books", "return book", "cook dinner", "buy milk");
+        KeywordIndex index = new KeywordIndex(tasks);
+
+        StringBuilder sb = new StringBuilder();
+        for (int id : index.searchFuzzy("boook", 2)) {
+            sb.append(tasks.getTaskById(id).getDescription()).append(";");
+        }
+        assertEquals("return book;read books;cook dinner;", sb.toString());
+        assertEquals(0, index.searchFuzzy("boook", 0).length);
+    }
+
+    @Test
+    public void searchFuzzy_afterRemove_skipsWordsNoLongerUsed() {
+        TaskList tasks = listOf("read book", "buy milk");
+        KeywordIndex index = new KeywordIndex(tasks);
+
+        tasks.removeTask(0);
+
+        assertEquals(0, index.searchFuzzy("bok", 1).length);
+        assertEquals(1, index.searchFuzzy("milc", 1).length);
+    }
+}
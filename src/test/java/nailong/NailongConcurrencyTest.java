@@ -0,0 +1,99 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NailongConcurrencyTest {
+    private static final int THREADS = 6;
+    private static final int ROUNDS = 300;
+
+    @TempDir
+    Path tempDir;
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs the worker on several threads at once and fails if any of them throws.
+     */
+    private static void runConcurrently(Worker worker) throws InterruptedException {
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), "Worker failed: " + failures.peek());
+    }
+
+    @Test
+    public void addThenUndo_fromManyThreads_leavesListEmpty() throws InterruptedException {
+        String file = tempDir.resolve("tasks.txt").toString();
+        Nailong nailong = new Nailong(file);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                nailong.getResponse("todo task " + thread + "-" + i);
+                nailong.getResponse("undo");
+            }
+        });
+
+        assertTrue(nailong.getResponse("list").contains("No tasks right now"));
+        assertEquals(0, new Storage(file).load().size());
+    }
+
+    @Test
+    public void mixedReadsAndWrites_keepListIndexesAndFileInStep() throws InterruptedException {
+        String file = tempDir.resolve("tasks.txt").toString();
+        Nailong nailong = new Nailong(file);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                if (thread % 2 == 0) {
+                    nailong.getResponse("todo shared " + thread + "-" + i);
+                    added.incrementAndGet();
+                    nailong.getResponse("mark 1");
+                    if (i % 3 == 0 && nailong.getResponse("delete 1").contains("poofed")) {
+                        deleted.incrementAndGet();
+                    }
+                } else {
+                    String list = nailong.getResponse("list");
+                    String found = nailong.getResponse("find shared");
+                    assertTrue(!list.contains("Oh nooo") && !found.contains("Oh nooo"), list + found);
+                }
+            }
+        });
+
+        int expected = added.get() - deleted.get();
+        String list = nailong.getResponse("list");
+        assertEquals(expected, list.split("\n").length - 1);
+        assertEquals(expected, nailong.getResponse("find shared").split("\n").length - 2);
+        assertEquals(expected, new Storage(file).load().size());
+    }
+}
@@ -0,0 +1,90 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NailongHostTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void getResponse_overBudget_evictsLeastRecentlyUsedAfterSaving() throws Exception {
+        long budget = 2 * (NailongHost.ESTIMATED_BYTES_PER_INSTANCE + NailongHost.ESTIMATED_BYTES_PER_TASK);
+        try (NailongHost host = new NailongHost(tempDir, new StorageOptions(), budget)) {
+            host.getResponse("alice", "todo read");
+            host.getResponse("bob", "todo write");
+            host.getResponse("alice", "list");
+            host.getResponse("carol", "todo sleep");
+
+            assertEquals(2, host.getLoadedCount());
+            assertEquals(1, host.getEvictionCount());
+            assertEquals(1, host.getHitCount());
+            assertEquals(3, host.getMissCount());
+            assertTrue(host.getEstimatedBytes() <= budget);
+            assertTrue(Files.readString(tempDir.resolve("bob.txt")).contains("write"));
+
+            assertTrue(host.getResponse("bob", "list").contains("1. [T][ ] write"));
+            assertEquals(4, host.getMissCount());
+        }
+    }
+
+    @Test
+    public void close_writeBehindLists_savesEveryLoadedList() throws Exception {
+        StorageOptions options = new StorageOptions().withWriteBehind(60_000, 60_000);
+        NailongHost host = new NailongHost(tempDir, options, Long.MAX_VALUE);
+        host.getResponse("alice", "todo read");
+        host.getResponse("bob", "todo write");
+        host.close();
+
+        assertTrue(Files.readString(tempDir.resolve("alice.txt")).contains("read"));
+        assertTrue(Files.readString(tempDir.resolve("bob.txt")).contains("write"));
+    }
+
+    @Test
+    public void getResponse_concurrentUsersOverBudget_keepsEveryTask() throws Exception {
+        long budget = 2 * (NailongHost.ESTIMATED_BYTES_PER_INSTANCE + 10 * NailongHost.ESTIMATED_BYTES_PER_TASK);
+        int threadCount = 4;
+        int users = 6;
+        int tasksPerThread = 60;
+        // Write-behind lists reach disk only when evicted, so a reload racing the save would lose tasks
+        StorageOptions options = new StorageOptions().withWriteBehind(60_000, 60_000);
+        NailongHost host = new NailongHost(tempDir, options, budget);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < tasksPerThread; i++) {
+                    host.getResponse("user" + (i % users), "todo t" + thread + " n" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        host.close();
+
+        assertTrue(host.getEvictionCount() > 0);
+        for (int u = 0; u < users; u++) {
+            List<String> lines = Files.readAllLines(tempDir.resolve("user" + u + ".txt"));
+            assertEquals(threadCount * tasksPerThread / users, lines.size());
+        }
+    }
+
+    @Test
+    public void getResponse_pathLikeUserName_throwsException() {
+        NailongHost host = new NailongHost(tempDir, new StorageOptions(), Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> host.getResponse("../alice", "list"));
+        assertEquals(0, host.getLoadedCount());
+    }
+}
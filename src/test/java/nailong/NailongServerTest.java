@@ -0,0 +1,117 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NailongServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String readResponse(BufferedReader in) throws IOException {
+        StringBuilder response = new StringBuilder();
+        String line;
+        while (!(line = in.readLine()).equals(NailongServer.END_OF_RESPONSE)) {
+            response.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+        }
+        return response.toString();
+    }
+
+    @Test
+    public void serve_pipelinedCommands_answersInOrder() throws IOException {
+        Nailong nailong = new Nailong(tempDir.resolve("tasks.txt").toString());
+        try (NailongServer server = new NailongServer(nailong, 0)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                OutputStream out = socket.getOutputStream();
+                out.write("todo read\ntodo write\nmark 2\nlist\nbye\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+                assertTrue(readResponse(in).contains("[T][ ] read"));
+                assertTrue(readResponse(in).contains("[T][ ] write"));
+                assertTrue(readResponse(in).contains("[T][X] write"));
+                assertTrue(readResponse(in).contains("2. [T][X] write"));
+                assertTrue(readResponse(in).contains("Byebye"));
+                assertEquals(null, in.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void serve_concurrentClients_keepsEveryTask() throws Exception {
+        Nailong nailong = new Nailong(tempDir.resolve("tasks.txt").toString());
+        int clients = 8;
+        int tasksPerClient = 25;
+        try (NailongServer server = new NailongServer(nailong, 0)) {
+            server.start();
+            List<Thread> threads = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                threads.add(new Thread(() -> {
+                    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                        StringBuilder script = new StringBuilder();
+                        for (int i = 0; i < tasksPerClient; i++) {
+                            script.append("todo c").append(client).append(" t").append(i).append('\n');
+                        }
+                        socket.getOutputStream().write(script.toString().getBytes(StandardCharsets.UTF_8));
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        for (int i = 0; i < tasksPerClient; i++) {
+                            readResponse(in);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        String list = nailong.getResponse("list");
+        assertTrue(list.contains((clients * tasksPerClient) + ". [T]"));
+        assertTrue(!list.contains((clients * tasksPerClient + 1) + ". [T]"));
+    }
+
+    @Test
+    public void serve_hostedUsers_keepsListsApart() throws IOException {
+        try (NailongHost host = new NailongHost(tempDir, new StorageOptions(), Long.MAX_VALUE);
+                NailongServer server = new NailongServer(host, 0)) {
+            server.start();
+            for (String user : new String[] {"alice", "bob"}) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                    String script = "list\nuser " + user + "\ntodo " + user + " task\nlist\n";
+                    socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+                    assertTrue(readResponse(in).contains("user <name>"));
+                    assertTrue(readResponse(in).contains("Hello " + user));
+                    readResponse(in);
+                    String list = readResponse(in);
+                    assertTrue(list.contains("1. [T][ ] " + user + " task"));
+                    assertTrue(!list.contains("2. "));
+                }
+            }
+            assertEquals(2, host.getLoadedCount());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nailong.task.Task;
+
+public class ParallelTaskFileLoaderTest {
+    private static final int LINE_COUNT = 200_000;
+
+    @TempDir
+    Path tempDir;
+
+    private String loadCapturingOutput(Path file, long parallelThreshold, ArrayList<Task> into) {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true));
+        try {
+            into.addAll(new Storage(file.toString(),
+                    new StorageOptions().withParallelLoadThreshold(parallelThreshold)).load());
+        } finally {
+            System.setOut(originalOut);
+        }
+        return captured.toString();
+    }
+
+    private static String warningsIn(String output) {
+        StringBuilder warnings = new StringBuilder();
+        for (String line : output.split("\\R")) {
+            if (line.startsWith("Warning")) {
+                warnings.append(line).append('\n');
+            }
+        }
+        return warnings.toString();
+    }
+
+    @Test
+    public void load_multiChunkFile_matchesSequentialLoad() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= LINE_COUNT; i++) {
+            if (i % 70_001 == 0) {
+                content.append("this line is corrupted\r\n");
+            } else if (i % 90_001 == 0) {
+                content.append("Q | 0 | unknown type\n");
+            } else {
+                content.append("T | ").append(i % 2).append(" | task ").append(i).append('\n');
+            }
+        }
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, content);
+        assertTrue(Files.size(file) > 2 * 1024 * 1024);
+
+        ArrayList<Task> sequential = new ArrayList<>();
+        ArrayList<Task> parallel = new ArrayList<>();
+        String sequentialOutput = loadCapturingOutput(file, Long.MAX_VALUE, sequential);
+        String parallelOutput = loadCapturingOutput(file, 0, parallel);
+
+        assertTrue(sequentialOutput.contains("Corrupted data at line 140002: this line is corrupted"));
+        // Only compare the warnings: the JIT may drop messages of hot implicit exceptions
+        assertEquals(warningsIn(sequentialOutput), warningsIn(parallelOutput));
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).formatToStore(), parallel.get(i).formatToStore());
+        }
+    }
+
+    @Test
+    public void load_emptyFileInParallel_noTasks() throws IOException {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.createFile(file);
+        ArrayList<Task> tasks = new ArrayList<>();
+
+        assertEquals("", loadCapturingOutput(file, 0, tasks));
+        assertEquals(0, tasks.size());
+    }
+}
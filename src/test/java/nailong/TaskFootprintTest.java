@@ -0,0 +1,111 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nailong.task.Task;
+
+public class TaskFootprintTest {
+    private static final int TASK_COUNT = 200_000;
+    /** Todo object, its slot in the list and its share of a deduplicated description. */
+    private static final long SHARED_TODO_BUDGET_BYTES = 48;
+    /** Todo object, its slot in the list and a description of about 20 characters of its own. */
+    private static final long UNIQUE_TODO_BUDGET_BYTES = 128;
+    /** About 21 bytes of columns per task and a description of about 20 bytes in the arena. */
+    private static final long COLUMNAR_TASK_BUDGET_BYTES = 56;
+
+    @TempDir
+    Path tempDir;
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private Path writeTodos(boolean isRepeated) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            sb.append("T | 0 | ").append(isRepeated ? "daily standup" : "daily standup " + i).append("\n");
+        }
+        Path file = tempDir.resolve(isRepeated ? "repeated.txt" : "unique.txt");
+        Files.writeString(file, sb);
+        return file;
+    }
+
+    private Path writeMixedTasks() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            switch (i % 3) {
+            case 0:
+                sb.append("T | 0 | daily standup ").append(i).append("\n");
+                break;
+            case 1:
+                sb.append("D | 1 | submit report ").append(i).append(" | Mar 15 2099\n");
+                break;
+            default:
+                sb.append("E | 0 | team offsite ").append(i).append(" | Mar 15 2099 | Mar 16 2099\n");
+                break;
+            }
+        }
+        Path file = tempDir.resolve("mixed.txt");
+        Files.writeString(file, sb);
+        return file;
+    }
+
+    /**
+     * Returns the heap each loaded task takes, held the way Nailong holds it for the given options.
+     */
+    private static long bytesPerTodo(Path file, StorageOptions options) {
+        long before = usedHeap();
+        ArrayList<Task> loaded = new Storage(file.toString(), options).load();
+        TaskSequence tasks = options.isColumnar()
+                ? new ColumnarTaskSequence(loaded)
+                : new ChunkedTaskSequence(loaded);
+        loaded = null;
+        long after = usedHeap();
+        assertEquals(TASK_COUNT, tasks.size());
+        return (after - before) / tasks.size();
+    }
+
+    @Test
+    public void load_repeatedDescriptionsWithDedup_shareOneString() throws IOException {
+        Path file = writeTodos(true);
+
+        ArrayList<Task> shared = new Storage(file.toString(), new StorageOptions().withDescriptionDedup()).load();
+        ArrayList<Task> separate = new Storage(file.toString()).load();
+
+        assertSame(shared.get(0).getDescription(), shared.get(TASK_COUNT - 1).getDescription());
+        assertNotSame(separate.get(0).getDescription(), separate.get(TASK_COUNT - 1).getDescription());
+    }
+
+    @Test
+    public void load_repeatedDescriptionsWithDedup_staysWithinBudget() throws IOException {
+        long bytes = bytesPerTodo(writeTodos(true), new StorageOptions().withDescriptionDedup());
+        assertTrue(bytes <= SHARED_TODO_BUDGET_BYTES, bytes + " bytes per Todo");
+    }
+
+    @Test
+    public void load_uniqueDescriptions_staysWithinBudget() throws IOException {
+        long bytes = bytesPerTodo(writeTodos(false), new StorageOptions());
+        assertTrue(bytes <= UNIQUE_TODO_BUDGET_BYTES, bytes + " bytes per Todo");
+    }
+
+    @Test
+    public void load_mixedTasksColumnar_staysWithinBudget() throws IOException {
+        long bytes = bytesPerTodo(writeMixedTasks(), new StorageOptions().withColumnarTasks());
+        assertTrue(bytes <= COLUMNAR_TASK_BUDGET_BYTES, bytes + " bytes per task");
+    }
+}
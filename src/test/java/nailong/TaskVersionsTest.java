@@ -0,0 +1,76 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class TaskVersionsTest {
+
+    private static ArrayList<String> render(TaskList tasks) {
+        ArrayList<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.getTaskListSize(); i++) {
+            lines.add(tasks.getTask(i).toString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void describe_randomEdits_matchesCopiesTakenAfterEachCommand() {
+        ArrayList<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            initial.add(new Todo("task" + i));
+        }
+        TaskList tasks = new TaskList(initial);
+        TaskVersions versions = new TaskVersions(tasks, 20);
+        List<ArrayList<String>> expected = new ArrayList<>();
+        expected.add(render(tasks));
+
+        Random random = new Random(7);
+        for (int step = 0; step < 300; step++) {
+            int size = tasks.getTaskListSize();
+            int choice = random.nextInt(4);
+            if (choice == 0 || size == 0) {
+                tasks.addTaskAtIndex(new Todo("new" + step), random.nextInt(size + 1));
+            } else if (choice == 1) {
+                tasks.removeTask(random.nextInt(size));
+            } else if (choice == 2) {
+                tasks.markTask(random.nextInt(size));
+            } else {
+                tasks.unmarkTask(random.nextInt(size));
+            }
+            versions.record();
+            expected.add(render(tasks));
+        }
+
+        assertEquals(20, versions.getAvailableSteps());
+        for (int stepsBack = 0; stepsBack <= 20; stepsBack++) {
+            assertEquals(expected.get(expected.size() - 1 - stepsBack), versions.describe(stepsBack));
+        }
+        assertThrows(IllegalArgumentException.class, () -> versions.describe(21));
+    }
+
+    @Test
+    public void record_unchangedList_keepsNoNewVersion() {
+        ArrayList<Task> initial = new ArrayList<>();
+        initial.add(new Todo("read"));
+        TaskList tasks = new TaskList(initial);
+        TaskVersions versions = new TaskVersions(tasks, 5);
+
+        versions.record();
+        tasks.markTask(0);
+        versions.record();
+        versions.record();
+
+        assertEquals(1, versions.getAvailableSteps());
+        assertEquals(List.of("[T][X] read"), versions.describe(0));
+        assertEquals(List.of("[T][ ] read"), versions.describe(1));
+    }
+}
@@ -0,0 +1,65 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import nailong.task.Task;
+import nailong.task.Todo;
+
+public class TrigramIndexTest {
+
+    private static TaskList listOf(String... descriptions) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (String description : descriptions) {
+            tasks.add(new Todo(description));
+        }
+        return new TaskList(tasks);
+    }
+
+    private static String find(TrigramIndex index, String... keywords) {
+        StringBuilder sb = new StringBuilder();
+        for (Task task : index.search(List.of(List.of(keywords)))) {
+            sb.append(task.getDescription()).append(";");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void search_substring_matchesInsideWords() {
+        TaskList tasks = listOf("buy notebook", "read book", "Book club", "cook");
+        TrigramIndex index = new TrigramIndex(tasks);
+
+        assertEquals("buy notebook;read book;", find(index, "book"));
+        assertEquals("buy notebook;read book;Book club;cook;", find(index, "ook"));
+        assertEquals("read book;", find(index, " book"));
+        assertEquals("buy notebook;", find(index, "book", "buy"));
+    }
+
+    @Test
+    public void search_shortOrMarkerKeywords_matchLikeScan() {
+        TaskList tasks = listOf("go", "read book");
+        tasks.markTask(1);
+        TrigramIndex index = new TrigramIndex(tasks);
+
+        assertEquals("go;", find(index, "go"));
+        assertEquals("read book;", find(index, "[X]"));
+        assertEquals("go;read book;", find(index, "[T]"));
+    }
+
+    @Test
+    public void search_afterRemoveAndReinsert_followsTaskList() {
+        TaskList tasks = listOf("notebook", "textbook");
+        TrigramIndex index = new TrigramIndex(tasks);
+
+        Task removed = tasks.removeTask(0);
+        assertEquals("textbook;", find(index, "book"));
+
+        tasks.addTaskAtIndex(removed, 0);
+        tasks.addTaskAtIndex(new Todo("bookmark"), 1);
+        assertEquals("notebook;bookmark;textbook;", find(index, "book"));
+    }
+}
@@ -0,0 +1,90 @@
+package nailong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WriteBehindFlusherTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void markDirty_burstOfChanges_coalescedIntoFewFlushes() {
+        AtomicInteger writes = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(() -> writes.incrementAndGet() > 0, 100, 5000);
+        for (int i = 0; i < 500; i++) {
+            flusher.markDirty();
+        }
+        flusher.close();
+
+        assertTrue(writes.get() >= 1 && writes.get() <= 3, "flushed " + writes.get() + " times");
+        assertEquals(writes.get(), flusher.getFlushCount());
+    }
+
+    @Test
+    public void flush_pendingChanges_writtenBeforeReturning() {
+        AtomicInteger writes = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(() -> writes.incrementAndGet() > 0, 60_000, 60_000);
+        flusher.markDirty();
+        flusher.flush();
+
+        assertEquals(1, writes.get());
+        flusher.flush();
+        assertEquals(1, writes.get());
+        flusher.close();
+    }
+
+    @Test
+    public void flush_writeFails_changesStayPendingAndFlushRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(() -> attempts.incrementAndGet() > 1, 60_000, 60_000);
+        flusher.markDirty();
+        flusher.flush();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, flusher.getFlushCount());
+        flusher.flush();
+        assertEquals(2, attempts.get());
+        assertEquals(1, flusher.getFlushCount());
+        flusher.flush();
+        assertEquals(2, attempts.get());
+        flusher.close();
+    }
+
+    @Test
+    public void markDirty_writeFails_retriedAfterNextInterval() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(() -> attempts.incrementAndGet() > 1, 20, 5000);
+        flusher.markDirty();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flusher.getFlushCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, flusher.getFlushCount());
+        assertEquals(2, attempts.get());
+        flusher.close();
+    }
+
+    @Test
+    public void getResponse_pastedCommandsThenBye_savedOnce() throws IOException {
+        Path file = tempDir.resolve("tasks.txt");
+        Nailong nailong = new Nailong(file.toString(), new StorageOptions().withWriteBehind(200, 5000));
+        for (int i = 0; i < 500; i++) {
+            nailong.getResponse("todo task " + i);
+        }
+        nailong.getResponse("mark 1");
+        nailong.getResponse("bye");
+
+        assertEquals(500, Files.readAllLines(file).size());
+        assertEquals("T | 1 | task 0", Files.readAllLines(file).get(0));
+        nailong.close();
+    }
+}
@@ -0,0 +1,73 @@
+package nailong.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DateCodecTest {
+
+    @AfterEach
+    public void resetClock() {
+        DateCodec.setClock(Clock.systemDefaultZone());
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    @Test
+    public void parseInputDate_validDates_matchLocalDate() {
+        assertEquals(epochDay(2025, 12, 25), DateCodec.parseInputDate("25/12/2025"));
+        assertEquals(epochDay(2026, 3, 5), DateCodec.parseInputDate("5/3/2026"));
+        assertEquals(epochDay(2028, 2, 29), DateCodec.parseInputDate("29/02/2028"));
+        assertEquals(epochDay(2000, 2, 29), DateCodec.parseInputDate("29/2/2000"));
+        assertEquals(epochDay(1969, 12, 31), DateCodec.parseInputDate("31/12/1969"));
+    }
+
+    @Test
+    public void parseInputDate_dateInsideText_foundLikeRegex() {
+        assertEquals(epochDay(2025, 4, 23), DateCodec.parseInputDate("123/4/2025"));
+        assertEquals(epochDay(2025, 12, 1), DateCodec.parseInputDate("by 1/12/20251 6pm"));
+    }
+
+    @Test
+    public void parseInputDate_nonExistentDate_throwsException() {
+        for (String date : new String[] {"31/02/2026", "29/2/2100", "0/1/2026", "1/13/2026", "31/4/2026"}) {
+            Exception exception = assertThrows(IllegalArgumentException.class, () -> DateCodec.parseInputDate(date));
+            assertEquals("Invalid date! Date does not exist!", exception.getMessage());
+        }
+    }
+
+    @Test
+    public void parseInputDate_badFormat_throwsException() {
+        for (String date : new String[] {"2023-12-25", "Friday", "1/2/202", "111/2025"}) {
+            Exception exception = assertThrows(IllegalArgumentException.class, () -> DateCodec.parseInputDate(date));
+            assertEquals("Invalid date format! Please use dd/MM/yyyy! (e.g 25/12/2025)", exception.getMessage());
+        }
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> DateCodec.parseInputDate("  "));
+        assertEquals("Date cannot be empty", exception.getMessage());
+    }
+
+    @Test
+    public void format_epochDay_rendersDisplayFormat() {
+        int christmas = DateCodec.parseInputDate("25/12/2025");
+        assertEquals("Dec 25 2025", DateCodec.format(christmas));
+        assertEquals(christmas, DateCodec.parseStoredDate(DateCodec.format(christmas)));
+    }
+
+    @Test
+    public void today_fixedClock_usedForPastDateCheck() {
+        DateCodec.setClock(Clock.fixed(LocalDate.of(2030, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                ZoneOffset.UTC));
+
+        assertEquals(epochDay(2030, 1, 1), DateCodec.today());
+        assertThrows(IllegalArgumentException.class, () -> new Deadline("report", "31/12/2029"));
+        assertEquals("[D][ ] report (by: Jan 01 2030)", new Deadline("report", "1/1/2030").toString());
+    }
+}
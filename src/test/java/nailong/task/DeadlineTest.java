@@ -36,4 +36,17 @@ public class DeadlineTest {
         String expected = "D | 1 | Submit assignment | Mar 15 2026";
         assertEquals(expected, deadline.formatToStore());
     }
+
+    @Test
+    public void restore_pastStoredDate_success() {
+        Deadline deadline = Deadline.restore("Submit assignment", "Mar 15 2001");
+        assertEquals("D | 0 | Submit assignment | Mar 15 2001", deadline.formatToStore());
+    }
+
+    @Test
+    public void restore_corruptedStoredDate_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            Deadline.restore("Submit assignment", "15/03/2026");
+        });
+    }
 }
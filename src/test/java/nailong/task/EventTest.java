@@ -43,4 +43,17 @@ public class EventTest {
         String expected = "E | 0 | Meeting | Mar 15 2026 | Mar 16 2026";
         assertEquals(expected, event.formatToStore());
     }
+
+    @Test
+    public void restore_pastStoredDates_success() {
+        Event event = Event.restore("Meeting", "Mar 15 2001", "Mar 16 2001");
+        assertEquals("[E][ ] Meeting (from: Mar 15 2001 to: Mar 16 2001)", event.toString());
+    }
+
+    @Test
+    public void restore_startAfterEnd_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            Event.restore("Meeting", "Mar 16 2001", "Mar 15 2001");
+        });
+    }
 }
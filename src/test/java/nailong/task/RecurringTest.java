@@ -0,0 +1,68 @@
+package nailong.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class RecurringTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void toString_correctFormat() {
+        assertEquals("[R][ ] review (every week from: Dec 01 2099)",
+                new Recurring("review", "01/12/2099", 7, null).toString());
+        assertEquals("[R][ ] water plants (every 3 days from: Dec 01 2099 until: Dec 31 2099)",
+                new Recurring("water plants", "01/12/2099", 3, "31/12/2099").toString());
+    }
+
+    @Test
+    public void occurrencesBetween_window_expandsOnlyThatWindow() {
+        Recurring review = new Recurring("review", "01/12/2099", 7, "31/12/2099");
+
+        assertArrayEquals(new int[] {day(2099, 12, 8), day(2099, 12, 15)},
+                review.occurrencesBetween(day(2099, 12, 2), day(2099, 12, 15)));
+        assertArrayEquals(new int[] {day(2099, 12, 22), day(2099, 12, 29)},
+                review.occurrencesBetween(day(2099, 12, 20), day(2100, 6, 1)));
+        assertEquals(0, review.occurrencesBetween(day(2099, 1, 1), day(2099, 11, 30)).length);
+    }
+
+    @Test
+    public void setOccurrenceDone_someDays_storesOnlyThoseDays() {
+        Recurring standup = new Recurring("standup", "01/12/2099", 1, null);
+        standup.setOccurrenceDone(day(2099, 12, 3), true);
+        standup.setOccurrenceDone(day(2099, 12, 2), true);
+        standup.setOccurrenceDone(day(2099, 12, 3), false);
+
+        assertTrue(standup.isOccurrenceDone(day(2099, 12, 2)));
+        assertFalse(standup.isOccurrenceDone(day(2099, 12, 3)));
+        assertEquals("R | 0 | standup | Dec 01 2099 | 1 | - | Dec 02 2099", standup.formatToStore());
+        assertEquals("[R][X] standup (on: Dec 02 2099)", standup.occurrenceOn(day(2099, 12, 2)).toString());
+    }
+
+    @Test
+    public void restore_storedForm_roundTrips() {
+        Recurring review = new Recurring("review", "01/12/2099", 14, "31/12/2100");
+        review.setOccurrenceDone(day(2099, 12, 29), true);
+        review.setOccurrenceDone(day(2099, 12, 15), true);
+
+        String[] parts = review.formatToStore().split(" \\| ");
+        Recurring restored = Recurring.restore(parts[2], parts[3], parts[4], parts[5], parts[6]);
+        assertEquals(review.formatToStore(), restored.formatToStore());
+    }
+
+    @Test
+    public void setOccurrenceDone_dayBetweenOccurrences_throwsException() {
+        Recurring review = new Recurring("review", "01/12/2099", 7, null);
+        assertThrows(IllegalArgumentException.class, () -> review.setOccurrenceDone(day(2099, 12, 2), true));
+        assertThrows(IllegalArgumentException.class, () -> review.setOccurrenceDone(day(2099, 11, 24), true));
+    }
+}